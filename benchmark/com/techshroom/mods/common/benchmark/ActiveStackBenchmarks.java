@@ -0,0 +1,63 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.techshroom.mods.common.Proxy;
+
+/**
+ * Benchmarks for the active proxy stack.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActiveStackBenchmarks {
+    private Proxy outer, middle, inner;
+
+    @SuppressWarnings("javadoc")
+    @Setup
+    public void setup() {
+        outer = ProxyDriver.newProxy();
+        middle = ProxyDriver.newProxy();
+        inner = ProxyDriver.newProxy();
+    }
+
+    /**
+     * A single {@link Proxy#markInUse()}/{@link Proxy#markDone()} pair.
+     * 
+     * @return the head of the stack while marked
+     */
+    @Benchmark
+    public Proxy markInUseDone() {
+        outer.markInUse();
+        Proxy head = Proxy.getHeadOfActiveStack();
+        outer.markDone();
+        return head;
+    }
+
+    /**
+     * Three nested {@link Proxy#markInUse()}/{@link Proxy#markDone()} pairs.
+     * 
+     * @return the head of the stack at the deepest point
+     */
+    @Benchmark
+    public Proxy markInUseDoneNested() {
+        outer.markInUse();
+        middle.markInUse();
+        inner.markInUse();
+        Proxy head = Proxy.getHeadOfActiveStack();
+        inner.markDone();
+        middle.markDone();
+        outer.markDone();
+        return head;
+    }
+}
@@ -0,0 +1,149 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.Maps;
+import com.techshroom.mods.common.collect.IntIntMap;
+import com.techshroom.mods.common.collect.ObjectIntMap;
+
+/**
+ * Benchmarks for the {@code collect} maps against boxed {@link Map Maps}.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollectBenchmarks {
+    private static final int SIZE = 4096;
+
+    private int[] keys;
+    private String[] names;
+    private IntIntMap intIntMap;
+    private Map<Integer, Integer> boxedIntMap;
+    private ObjectIntMap<String> objectIntMap;
+    private Map<String, Integer> boxedObjectMap;
+
+    @SuppressWarnings("javadoc")
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        keys = new int[SIZE];
+        names = new String[SIZE];
+        intIntMap = IntIntMap.create();
+        boxedIntMap = Maps.newHashMap();
+        objectIntMap = ObjectIntMap.create();
+        boxedObjectMap = Maps.newHashMap();
+        for (int i = 0; i < SIZE; i++) {
+            // item id and metadata, like the recipe indexes
+            keys[i] = random.nextInt(32000) << 16 | random.nextInt(16);
+            names[i] = "item" + random.nextInt();
+            intIntMap.put(keys[i], i);
+            boxedIntMap.put(keys[i], i);
+            objectIntMap.put(names[i], i);
+            boxedObjectMap.put(names[i], i);
+        }
+    }
+
+    /**
+     * Look up every key in an IntIntMap.
+     * 
+     * @return the sum of the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int intIntMapGet() {
+        int sum = 0;
+        for (int key : keys) {
+            sum += intIntMap.get(key, 0);
+        }
+        return sum;
+    }
+
+    /**
+     * Look up every key in a HashMap.
+     * 
+     * @return the sum of the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int boxedIntMapGet() {
+        int sum = 0;
+        for (int key : keys) {
+            sum += boxedIntMap.get(key);
+        }
+        return sum;
+    }
+
+    /**
+     * Count into an IntIntMap.
+     * 
+     * @return the map
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public IntIntMap intIntMapCount() {
+        IntIntMap map = IntIntMap.create();
+        for (int key : keys) {
+            map.addTo(key, 1);
+        }
+        return map;
+    }
+
+    /**
+     * Count into a HashMap.
+     * 
+     * @return the map
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public Map<Integer, Integer> boxedIntMapCount() {
+        Map<Integer, Integer> map = Maps.newHashMap();
+        for (int key : keys) {
+            Integer old = map.get(key);
+            map.put(key, old == null ? 1 : old + 1);
+        }
+        return map;
+    }
+
+    /**
+     * Look up every key in an ObjectIntMap.
+     * 
+     * @return the sum of the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int objectIntMapGet() {
+        int sum = 0;
+        for (String name : names) {
+            sum += objectIntMap.get(name, 0);
+        }
+        return sum;
+    }
+
+    /**
+     * Look up every key in a HashMap.
+     * 
+     * @return the sum of the values
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int boxedObjectMapGet() {
+        int sum = 0;
+        for (String name : names) {
+            sum += boxedObjectMap.get(name);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.techshroom.mods.common.Constructors;
+
+/**
+ * Benchmarks for {@link Constructors#newInstance(Class)} against
+ * {@link Class#newInstance()} and a direct {@code new}.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstructionBenchmarks {
+    /**
+     * Stands in for a block class with a nullary constructor.
+     */
+    public static class Sample {
+        private final int[] data = new int[4];
+
+        @SuppressWarnings("javadoc")
+        public int[] getData() {
+            return data;
+        }
+    }
+
+    private Class<Sample> type = Sample.class;
+
+    /**
+     * Baseline.
+     * 
+     * @return the instance
+     */
+    @Benchmark
+    public Sample direct() {
+        return new Sample();
+    }
+
+    /**
+     * The old path in RBBuilder and RIBuilder.
+     * 
+     * @return the instance
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Benchmark
+    public Sample uncached() throws Exception {
+        return type.newInstance();
+    }
+
+    /**
+     * The cached constructor.
+     * 
+     * @return the instance
+     * @throws Throwable
+     *             exceptions propagate
+     */
+    @Benchmark
+    public Sample cached() throws Throwable {
+        return Constructors.newInstance(type);
+    }
+}
@@ -0,0 +1,118 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.techshroom.mods.common.java8.function.IntOperators;
+import com.techshroom.mods.common.java8.function.IntUnaryOperator;
+
+/**
+ * Benchmarks for operator chains from {@link IntOperators}.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperatorBenchmarks {
+    // one chunk of light values
+    private static final int SIZE = 4096;
+
+    private static final class Clamp implements IntUnaryOperator {
+        @Override
+        public int applyAsInt(int input) {
+            return Math.max(0, Math.min(15, input));
+        }
+    }
+
+    private static final class Decay implements IntUnaryOperator {
+        @Override
+        public int applyAsInt(int input) {
+            return input - 1;
+        }
+    }
+
+    private int[] values;
+    private int[] results = new int[SIZE];
+    private IntUnaryOperator[] unfused;
+    private IntUnaryOperator fused;
+
+    @SuppressWarnings("javadoc")
+    @Setup
+    public void setup() {
+        values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = i & 15;
+        }
+        unfused =
+                new IntUnaryOperator[] { IntOperators.identity(), new Decay(),
+                        new Clamp() };
+        fused = IntOperators.compose(unfused);
+    }
+
+    /**
+     * The chain as a loop over an array, as compositions used to be.
+     * 
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int loopedChain() {
+        int sum = 0;
+        for (int value : values) {
+            for (IntUnaryOperator op : unfused) {
+                value = op.applyAsInt(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * The chain from {@link IntOperators#compose(IntUnaryOperator...)}.
+     * 
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int composedChain() {
+        int sum = 0;
+        for (int value : values) {
+            sum += fused.applyAsInt(value);
+        }
+        return sum;
+    }
+
+    /**
+     * The composed chain applied to the whole array at once.
+     * 
+     * @return the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] bulkChain() {
+        IntOperators.applyAll(fused, values, results, 0, SIZE);
+        return results;
+    }
+
+    /**
+     * A constant over the whole array, which becomes a fill.
+     * 
+     * @return the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] bulkConstant() {
+        IntOperators.applyAll(IntOperators.constant(15), values, results, 0,
+                              SIZE);
+        return results;
+    }
+}
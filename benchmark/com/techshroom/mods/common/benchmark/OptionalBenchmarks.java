@@ -0,0 +1,85 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.techshroom.mods.common.java8.optional.OptionalFloat;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * Benchmarks for the {@link OptionalInt} and {@link OptionalFloat} caches.
+ * Run with {@code -prof gc} to see the allocation rate; the cached loops
+ * should allocate nothing.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OptionalBenchmarks {
+    private static final int LOOP = 1024;
+
+    /**
+     * Ints inside the cache, like light opacity.
+     * 
+     * @param hole
+     *            - sink
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public void cachedInts(Blackhole hole) {
+        for (int i = 0; i < LOOP; i++) {
+            hole.consume(OptionalInt.of(i & 255));
+        }
+    }
+
+    /**
+     * Ints outside the cache, for comparison.
+     * 
+     * @param hole
+     *            - sink
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public void uncachedInts(Blackhole hole) {
+        for (int i = 0; i < LOOP; i++) {
+            hole.consume(OptionalInt.of(i + 4096));
+        }
+    }
+
+    /**
+     * Floats inside the cache, like hardness and resistance.
+     * 
+     * @param hole
+     *            - sink
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public void cachedFloats(Blackhole hole) {
+        for (int i = 0; i < LOOP; i++) {
+            hole.consume(OptionalFloat.of((i & 31) * 0.5f));
+        }
+    }
+
+    /**
+     * Floats outside the cache, for comparison.
+     * 
+     * @param hole
+     *            - sink
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public void uncachedFloats(Blackhole hole) {
+        for (int i = 0; i < LOOP; i++) {
+            hole.consume(OptionalFloat.of(i + 0.1f));
+        }
+    }
+}
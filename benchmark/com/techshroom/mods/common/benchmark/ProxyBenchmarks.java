@@ -0,0 +1,86 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+
+/**
+ * Benchmarks for registering objects with a {@link Proxy} and running it
+ * through every state.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProxyBenchmarks {
+    @Param({ "10", "1000", "100000" })
+    private int count;
+
+    private List<RegisterableObject<?>> objects;
+
+    @SuppressWarnings("javadoc")
+    @Setup
+    public void setup() {
+        Proxy.State[] states = Proxy.State.values();
+        objects = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            // spread over the states that have events
+            Proxy.State state = states[i % states.length];
+            if (ProxyDriver.eventFor(state) == null) {
+                state = Proxy.State.PREINIT;
+            }
+            objects.add(ProxyDriver.noop(state));
+        }
+    }
+
+    /**
+     * Throughput of {@link Proxy#registerRegisterableObject}.
+     * 
+     * @return the proxy, so it isn't optimized away
+     */
+    @Benchmark
+    public Proxy register() {
+        Proxy proxy = ProxyDriver.newProxy();
+        for (RegisterableObject<?> regObj : objects) {
+            proxy.registerRegisterableObject(regObj);
+        }
+        return proxy;
+    }
+
+    /**
+     * Throughput of {@link Proxy#registerAll(Iterable)}.
+     * 
+     * @return the proxy, so it isn't optimized away
+     */
+    @Benchmark
+    public Proxy registerAll() {
+        Proxy proxy = ProxyDriver.newProxy();
+        proxy.registerAll(objects);
+        return proxy;
+    }
+
+    /**
+     * Register everything, then run the proxy through every state.
+     * 
+     * @return the proxy, so it isn't optimized away
+     */
+    @Benchmark
+    public Proxy lifecycle() {
+        Proxy proxy = register();
+        ProxyDriver.fireAll(proxy);
+        return proxy;
+    }
+}
@@ -0,0 +1,157 @@
+package com.techshroom.mods.common.benchmark;
+
+import net.minecraftforge.fml.common.event.*;
+
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+import com.techshroom.mods.common.test.ProxyModContainer;
+
+/**
+ * Drives a {@link Proxy} through its states outside of FML.
+ * 
+ * @author Kenzie Togami
+ */
+public final class ProxyDriver {
+    /**
+     * Create a proxy that isn't attached to any event bus.
+     * 
+     * @return a new proxy
+     */
+    public static Proxy newProxy() {
+        System.setProperty(Proxy.AUTO_BIND_PROP_KEY, Boolean.FALSE.toString());
+        return new Proxy();
+    }
+
+    /**
+     * Fire the event of every state with an event, in order.
+     * 
+     * @param proxy
+     *            - proxy to drive
+     */
+    public static void fireAll(Proxy proxy) {
+        for (State state : State.values()) {
+            fire(proxy, state);
+        }
+    }
+
+    /**
+     * Create an FML event for the given state.
+     * 
+     * @param state
+     *            - the state
+     * @return the event, or {@code null} if the state has none
+     */
+    public static FMLStateEvent eventFor(State state) {
+        switch (state) {
+            case CONSTRUCT:
+                return new FMLConstructionEvent(null, null, null);
+            case PREINIT:
+                return new FMLPreInitializationEvent(null, null);
+            case INIT:
+                return new FMLInitializationEvent();
+            case POSTINIT:
+                return new FMLPostInitializationEvent();
+            case USEABLE:
+                return new FMLLoadCompleteEvent();
+            case SERVER_ABOUT_TO_START:
+                return new FMLServerAboutToStartEvent((Object) null);
+            case SERVER_START_BEGIN:
+                return new FMLServerStartingEvent((Object) null);
+            case SERVER_START_END:
+                return new FMLServerStartedEvent();
+            case SERVER_STOP_BEGIN:
+                return new FMLServerStoppingEvent();
+            case SERVER_STOP_END:
+                return new FMLServerStoppedEvent();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Fire the event for the given state, if it has one.
+     * 
+     * @param proxy
+     *            - proxy to drive
+     * @param state
+     *            - state to enter and leave
+     * @return {@code true} if an event was fired
+     */
+    public static boolean fire(Proxy proxy, State state) {
+        FMLStateEvent event = eventFor(state);
+        if (event == null) {
+            return false;
+        }
+        switch (state) {
+            case CONSTRUCT:
+                proxy.construct((FMLConstructionEvent) event);
+                break;
+            case PREINIT:
+                event.applyModContainer(new ProxyModContainer(proxy));
+                proxy.preInit((FMLPreInitializationEvent) event);
+                break;
+            case INIT:
+                proxy.init((FMLInitializationEvent) event);
+                break;
+            case POSTINIT:
+                proxy.postInit((FMLPostInitializationEvent) event);
+                break;
+            case USEABLE:
+                proxy.avalible((FMLLoadCompleteEvent) event);
+                break;
+            case SERVER_ABOUT_TO_START:
+                proxy.aboutToStart((FMLServerAboutToStartEvent) event);
+                break;
+            case SERVER_START_BEGIN:
+                proxy.startBegin((FMLServerStartingEvent) event);
+                break;
+            case SERVER_START_END:
+                proxy.startEnd((FMLServerStartedEvent) event);
+                break;
+            case SERVER_STOP_BEGIN:
+                proxy.stopBegin((FMLServerStoppingEvent) event);
+                break;
+            case SERVER_STOP_END:
+                proxy.stopEnd((FMLServerStoppedEvent) event);
+                break;
+            default:
+                throw new IllegalStateException("state not implemented: "
+                        + state);
+        }
+        return true;
+    }
+
+    /**
+     * A RegisterableObject that does nothing.
+     * 
+     * @param state
+     *            - the register state
+     * @return a new object
+     */
+    public static RegisterableObject<Void> noop(final State state) {
+        return new RegisterableObject<Void>() {
+            @Override
+            public State registerState() {
+                return state;
+            }
+
+            @Override
+            public Void create() throws Throwable {
+                return null;
+            }
+
+            @Override
+            public void register() {
+            }
+
+            @Override
+            public void registerClient() {
+            }
+        };
+    }
+
+    private ProxyDriver() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,90 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapedRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapedRecipeExtension.EasyShapedRecipeBuilder;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapelessRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapelessRecipeExtension.EasyShapelessRecipeBuilder;
+
+/**
+ * Benchmarks for building recipes with the RRBuilder step builders. Only
+ * ore dictionary links are used, so no Minecraft bootstrap is needed.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipeBuildBenchmarks {
+    private static final String[] ROW = { "X", "Y", "X" };
+
+    @Param({ "10", "1000", "100000" })
+    private int count;
+
+    /**
+     * Build {@code count} shaped recipes.
+     * 
+     * @param hole
+     *            - blackhole
+     */
+    @Benchmark
+    public void shaped(Blackhole hole) {
+        for (int i = 0; i < count; i++) {
+            ShapedRecipeExtension ext =
+                    new EasyShapedRecipeBuilder(3, 3).start().setRow(0, ROW)
+                            .setRow(1, ROW).setRow(2, ROW).startLink()
+                            .link('X', "ingotIron").link('Y', "stickWood")
+                            .prep().build();
+            hole.consume(ext);
+        }
+    }
+
+    /**
+     * Build {@code count} shapeless recipes.
+     * 
+     * @param hole
+     *            - blackhole
+     */
+    @Benchmark
+    public void shapeless(Blackhole hole) {
+        for (int i = 0; i < count; i++) {
+            ShapelessRecipeExtension ext =
+                    new EasyShapelessRecipeBuilder().start()
+                            .addAll("X", "Y", "Y").startLink()
+                            .link('X', "ingotIron").link('Y', "stickWood")
+                            .prep().build();
+            hole.consume(ext);
+        }
+    }
+
+    /**
+     * Build {@code count} shaped recipes, then push an extra input on to each
+     * one's input stack. Run with {@code -prof gc} to see the allocation
+     * rate of the input storage.
+     * 
+     * @param hole
+     *            - blackhole
+     */
+    @Benchmark
+    public void shapedPush(Blackhole hole) {
+        for (int i = 0; i < count; i++) {
+            ShapedRecipeExtension ext =
+                    new EasyShapedRecipeBuilder(3, 3).start().setRow(0, ROW)
+                            .setRow(1, ROW).setRow(2, ROW).startLink()
+                            .link('X', "ingotIron").link('Y', "stickWood")
+                            .prep().build();
+            ext.push(Boolean.TRUE);
+            hole.consume(ext.getInputs());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.techshroom.mods.common.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraftforge.fml.common.event.FMLStateEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.Proxy;
+
+/**
+ * Benchmarks for {@link Proxy.State#from(FMLStateEvent)}.
+ * 
+ * @author Kenzie Togami
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateLookupBenchmarks {
+    // one event per state with an event
+    private static final int EVENTS = 10;
+
+    private List<FMLStateEvent> events;
+
+    @SuppressWarnings("javadoc")
+    @Setup
+    public void setup() {
+        events = Lists.newArrayListWithCapacity(EVENTS);
+        for (Proxy.State state : Proxy.State.values()) {
+            FMLStateEvent event = ProxyDriver.eventFor(state);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        if (events.size() != EVENTS) {
+            throw new IllegalStateException("expected " + EVENTS
+                    + " events, got " + events.size());
+        }
+    }
+
+    /**
+     * Look up the state of every event.
+     * 
+     * @param hole
+     *            - blackhole
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void fromEvent(Blackhole hole) {
+        for (FMLStateEvent event : events) {
+            hole.consume(Proxy.State.from(event));
+        }
+    }
+}
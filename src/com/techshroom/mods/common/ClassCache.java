@@ -0,0 +1,82 @@
+package com.techshroom.mods.common;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Lazily computed data for each class, like Java 7's {@code ClassValue}.
+ * Subclasses compute the value in {@link #computeValue(Class)}, which is
+ * called once per class unless the value is {@linkplain #remove(Class)
+ * removed} or collected.
+ *
+ * <p>
+ * Reads don't lock. Classes are held weakly and values softly; values are
+ * recomputed if the garbage collector clears them. Values usually refer to
+ * their class, so a class with a cached value can't be unloaded until memory
+ * runs low enough for its value to be cleared, or the value is
+ * {@linkplain #remove(Class) removed}. Don't rely on this cache to let
+ * classes unload promptly.
+ * </p>
+ *
+ * @author Kenzie Togami
+ * @param <V>
+ *            - the value type
+ */
+public abstract class ClassCache<V> {
+    private final LoadingCache<Class<?>, V> values = CacheBuilder.newBuilder()
+            .weakKeys().softValues().build(new CacheLoader<Class<?>, V>() {
+                @Override
+                public V load(Class<?> key) throws Exception {
+                    return checkNotNull(computeValue(key),
+                                        "computeValue returned null for %s",
+                                        key);
+                }
+            });
+
+    /**
+     * Computes the value for a class.
+     *
+     * @param type
+     *            - the class
+     * @return the value, never {@code null}
+     */
+    protected abstract V computeValue(Class<?> type);
+
+    /**
+     * Gets the value for a class, computing it if needed. Exceptions from
+     * {@link #computeValue(Class)} are rethrown as-is, and nothing is cached
+     * for the class.
+     *
+     * @param type
+     *            - the class
+     * @return the value
+     */
+    public V get(Class<?> type) {
+        try {
+            return values.getUnchecked(type);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (ExecutionError e) {
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * Removes the value for a class, so the next {@link #get(Class)}
+     * computes it again.
+     *
+     * @param type
+     *            - the class
+     */
+    public void remove(Class<?> type) {
+        values.invalidate(type);
+    }
+}
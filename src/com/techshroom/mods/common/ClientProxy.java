@@ -20,8 +20,8 @@ public class ClientProxy
             "com.techshroom.mods.common.ClientProxy";
 
     @Override
-    protected void regObjHook(RegisterableObject<?> regObj) throws Throwable {
-        super.regObjHook(regObj);
+    protected void registerHook(RegisterableObject<?> regObj) throws Throwable {
+        super.registerHook(regObj);
         regObj.registerClient();
     }
 
@@ -0,0 +1,79 @@
+package com.techshroom.mods.common;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * Cached nullary constructors, for creating many instances of the same class.
+ * Unlike {@link Class#newInstance()}, the access checks are only done once per
+ * class, and exceptions thrown by the constructor are rethrown as-is.
+ * 
+ * @author Kenzie Togami
+ */
+public final class Constructors {
+    private static final ClassCache<Constructor<?>> NULLARY =
+            new ClassCache<Constructor<?>>() {
+                @Override
+                protected Constructor<?> computeValue(Class<?> type) {
+                    return findNullary(type);
+                }
+            };
+
+    private static Constructor<?> findNullary(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException(type + " is abstract");
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type
+                    + " does not have a nullary constructor");
+        }
+        constructor.setAccessible(true);
+        return constructor;
+    }
+
+    /**
+     * Gets the cached nullary constructor of the given class. The constructor
+     * is already {@linkplain Constructor#setAccessible(boolean) accessible}.
+     * 
+     * @param type
+     *            - the class to get the constructor of
+     * @return the nullary constructor
+     * @throws IllegalArgumentException
+     *             if the class is abstract or has no nullary constructor
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Constructor<T> nullary(Class<T> type) {
+        return (Constructor<T>) NULLARY.get(type);
+    }
+
+    /**
+     * Creates a new instance using the cached nullary constructor of the given
+     * class.
+     * 
+     * @param type
+     *            - the class to create an instance of
+     * @return the new instance
+     * @throws IllegalArgumentException
+     *             if the class is abstract or has no nullary constructor
+     * @throws Throwable
+     *             anything thrown by the constructor or class initializer
+     */
+    public static <T> T newInstance(Class<T> type) throws Throwable {
+        Constructor<T> constructor = nullary(type);
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException wrapped) {
+            throw wrapped.getCause();
+        } catch (ExceptionInInitializerError wrapped) {
+            throw wrapped.getCause();
+        }
+    }
+
+    private Constructors() {
+        throw new AssertionError();
+    }
+}
@@ -1,10 +1,8 @@
 package com.techshroom.mods.common;
 
 import java.lang.reflect.Array;
-import java.util.Map;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Maps;
 
 /**
  * Generic functionalities for cleaner generic code.
@@ -33,7 +31,13 @@ public final class Generics {
         return itemStackOpt;
     }
 
-    private static final Map<Class<?>, Object> ARRAYS = Maps.newConcurrentMap();
+    private static final ClassCache<Object> EMPTY_ARRAYS =
+            new ClassCache<Object>() {
+                @Override
+                protected Object computeValue(Class<?> type) {
+                    return Array.newInstance(type, 0);
+                }
+            };
 
     /**
      * Generic empty array sharing, for performance reasons.
@@ -45,10 +49,7 @@ public final class Generics {
      */
     @SuppressWarnings("unchecked")
     public static <T> T[] emptyArray(Class<T> forceT) {
-        if (!ARRAYS.containsKey(forceT)) {
-            ARRAYS.put(forceT, Array.newInstance(forceT, 0));
-        }
-        return (T[]) ARRAYS.get(forceT);
+        return (T[]) EMPTY_ARRAYS.get(forceT);
     }
 
     private Generics() {
@@ -1,12 +1,26 @@
 package com.techshroom.mods.common;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.FMLCommonHandler;
@@ -19,15 +33,20 @@ import net.minecraftforge.fml.common.event.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+import com.techshroom.mods.common.proxybuilders.RetainedRegisterableObject;
 
 /**
  * Core proxy class for mods to extend.
@@ -48,6 +67,31 @@ public class Proxy {
      */
     public static final String AUTO_BIND_PROP_KEY = QUALNAME + ".attach";
 
+    /**
+     * This property key can be set to {@code true} in the system properties to
+     * make new proxies run {@link RegisterableObject#create()} in parallel.
+     * 
+     * @see #setParallelCreate(boolean)
+     */
+    public static final String PARALLEL_CREATE_PROP_KEY = QUALNAME
+            + ".parallelCreate";
+
+    /**
+     * This property key can be set to {@code true} in the system properties to
+     * make new proxies record a {@link ProxyProfiler profile} of every state.
+     * 
+     * @see #setProfiling(boolean)
+     */
+    public static final String PROFILE_PROP_KEY = QUALNAME + ".profile";
+
+    /**
+     * This property key can be set to the directory profiles are written to
+     * when {@link State#SERVER_START_END} is passed. Defaults to the working
+     * directory.
+     */
+    public static final String PROFILE_DIR_PROP_KEY = PROFILE_PROP_KEY
+            + ".dir";
+
     /**
      * Different states correlating to {@link ModState}.
      * 
@@ -234,6 +278,32 @@ public class Proxy {
         return activeProxies.get();
     }
 
+    /**
+     * Pool for parallel {@link RegisterableObject#create()} calls, shared by
+     * all proxies. Only created if a proxy actually uses it.
+     */
+    private static final class CreatePool {
+        private static final ExecutorService INSTANCE = Executors
+                .newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                    new ThreadFactoryBuilder()
+                                            .setDaemon(true)
+                                            .setNameFormat("TSModCore-create-%d")
+                                            .build());
+    }
+
+    /**
+     * Pool for {@link Proxy#submitTask(Callable, State) background tasks},
+     * shared by all proxies. Only created if a proxy actually uses it.
+     */
+    private static final class TaskPool {
+        private static final ExecutorService INSTANCE = Executors
+                .newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                    new ThreadFactoryBuilder()
+                                            .setDaemon(true)
+                                            .setNameFormat("TSModCore-task-%d")
+                                            .build());
+    }
+
     private static final Field FMLModContainer_eventBus;
     static {
         Field tmp = null;
@@ -275,12 +345,40 @@ public class Proxy {
         }
     }
 
-    private final Multimap<State, RegisterableObject<?>> builders =
-            HashMultimap.create();
-    private final Set<RegisterableObject<?>> duringStateBuilders = Sets
+    /*
+     * One lock-free bucket per state, so any thread can register. Buckets are
+     * released once their state is passed.
+     */
+    private final StateIndexedBuckets<RegisterableObject<?>> builders =
+            new StateIndexedBuckets<RegisterableObject<?>>();
+    // builders that asked to be kept, published when their state is passed
+    private final AtomicReferenceArray<ImmutableList<RegisterableObject<?>>> retained =
+            new AtomicReferenceArray<ImmutableList<RegisterableObject<?>>>(
+                    State.values().length);
+    private final AtomicLong releasedCount = new AtomicLong();
+    // background tasks, by the state that needs them
+    private final StateIndexedBuckets<ListenableFuture<?>> tasks =
+            new StateIndexedBuckets<ListenableFuture<?>>();
+    // only touched by the loader thread
+    private final List<RegisterableObject<?>> retainedThisState = Lists
+            .newArrayList();
+    private int drainedThisState;
+    // objects run or skipped this state, so later drains can see them
+    private final Set<RegisterableObject<?>> ranThisState = Sets.newHashSet();
+    private final Set<RegisterableObject<?>> failedThisState = Sets
             .newHashSet();
-    private State currentState = State.STARTUP;
-    private State lastPassedState = State.STARTUP;
+    // objects waiting on a dependency that hasn't been drained yet
+    private final List<RegisterableObject<?>> deferredThisState = Lists
+            .newArrayList();
+    private volatile State currentState = State.STARTUP;
+    private volatile State lastPassedState = State.STARTUP;
+    // the thread running the current state, and whether it's leaving it
+    private volatile Thread loaderThread;
+    private volatile boolean leaving;
+    private boolean parallelCreate = Boolean
+            .getBoolean(PARALLEL_CREATE_PROP_KEY);
+    private volatile ProxyProfiler profiler = Boolean
+            .getBoolean(PROFILE_PROP_KEY) ? new ProxyProfiler() : null;
 
     /**
      * Mark this proxy as an active proxy. This allows outside objects to ask
@@ -345,27 +443,163 @@ public class Proxy {
      */
     private void enter(FMLStateEvent state) {
         markInUse();
-        currentState = State.from(state);
+        loaderThread = Thread.currentThread();
+        leaving = false;
+        State entering = State.from(state);
+        currentState = entering;
+        ProxyProfiler profiler = this.profiler;
+        if (profiler != null) {
+            profiler.enterState();
+        }
+        awaitTasks(entering);
+    }
+
+    private void awaitTasks(State entering) {
+        for (State state : State.values()) {
+            if (state.compareTo(entering) > 0) {
+                break;
+            }
+            if (tasks.isReleased(state)) {
+                continue;
+            }
+            for (ListenableFuture<?> task : tasks.drain(state)) {
+                try {
+                    Uninterruptibles.getUninterruptibly(task);
+                } catch (ExecutionException e) {
+                    logger.error("background task required by " + state
+                            + " failed", e.getCause());
+                }
+            }
+            tasks.release(state);
+        }
     }
 
     /*
      * See above.
      */
     private void leave() {
-        if (currentState == null) {
+        State state = currentState;
+        if (state == null) {
             throw new IllegalStateException(
                     "cannot call leave() without calling enter()");
         }
-        // now possible to run extra builders registered by other builders
-        for (RegisterableObject<?> regObj : duringStateBuilders) {
-            exceptionCatchingRegObjHook(regObj);
-        }
-        duringStateBuilders.clear();
-        lastPassedState = currentState;
+        // now possible to run extra builders registered by other builders;
+        // other threads can't add to this state any more, so this ends
+        leaving = true;
+        runQueued(state);
         currentState = null;
+        lastPassedState = state;
+        loaderThread = null;
+        // run anything that was added by another thread while we were passing
+        // the state, see registerRegisterableObject
+        runQueued(state);
+        for (RegisterableObject<?> regObj : deferredThisState) {
+            logger.error("RegisterableObject<?> " + regObj
+                    + " skipped, a dependency was never registered for "
+                    + state);
+        }
+        deferredThisState.clear();
+        ranThisState.clear();
+        failedThisState.clear();
+        // nothing can run for this state or skipped ones any more
+        for (State passed : State.values()) {
+            if (passed.compareTo(state) > 0) {
+                break;
+            }
+            builders.release(passed);
+        }
+        retained.set(state.ordinal(), ImmutableList.copyOf(retainedThisState));
+        releasedCount.addAndGet(drainedThisState - retainedThisState.size());
+        retainedThisState.clear();
+        drainedThisState = 0;
+        ProxyProfiler profiler = this.profiler;
+        if (profiler != null) {
+            profiler.leaveState(state);
+            if (state == State.SERVER_START_END) {
+                writeProfile(profiler);
+            }
+        }
         markDone();
     }
 
+    /**
+     * Check if this proxy runs {@link RegisterableObject#create()} in
+     * parallel.
+     * 
+     * @return {@code true} if creation is done on the shared create pool
+     * @see #setParallelCreate(boolean)
+     */
+    public boolean isParallelCreate() {
+        return parallelCreate;
+    }
+
+    /**
+     * Enable or disable parallel creation. When enabled, every
+     * {@link RegisterableObject#create()} for a state is run on a shared pool,
+     * then {@link RegisterableObject#register()} is called for each object on
+     * the loader thread, in the order the objects were queued. Objects that
+     * fail to create are logged and not registered. All objects registered
+     * with this proxy must follow the thread-safety contract on
+     * {@link RegisterableObject}.
+     * 
+     * <p>
+     * Defaults to the value of {@link #PARALLEL_CREATE_PROP_KEY}.
+     * </p>
+     * 
+     * @param parallelCreate
+     *            - {@code true} to create in parallel
+     */
+    public void setParallelCreate(boolean parallelCreate) {
+        this.parallelCreate = parallelCreate;
+    }
+
+    /**
+     * Get the profiler of this proxy, if profiling is enabled.
+     * 
+     * @return the profiler
+     * @see #setProfiling(boolean)
+     */
+    public Optional<ProxyProfiler> getProfiler() {
+        return Optional.fromNullable(profiler);
+    }
+
+    /**
+     * Enable or disable profiling. When enabled, the time and allocated bytes
+     * of every state and every RegisterableObject are recorded. When
+     * {@link State#SERVER_START_END} is passed, the profile is written as CSV
+     * to the {@link #PROFILE_DIR_PROP_KEY profile directory} and the slowest
+     * objects are logged. Disabling drops the current profile.
+     * 
+     * <p>
+     * Defaults to the value of {@link #PROFILE_PROP_KEY}.
+     * </p>
+     * 
+     * @param profiling
+     *            - {@code true} to profile
+     */
+    public void setProfiling(boolean profiling) {
+        if (!profiling) {
+            profiler = null;
+        } else if (profiler == null) {
+            profiler = new ProxyProfiler();
+        }
+    }
+
+    private void writeProfile(ProxyProfiler profiler) {
+        for (ProxyProfiler.Timing timing : profiler.getSlowest(10)) {
+            logger.info("Slow RegisterableObject<?>: " + timing);
+        }
+        File file =
+                new File(System.getProperty(PROFILE_DIR_PROP_KEY, "."),
+                         "tsmodcore-profile-" + logger.getName() + ".csv");
+        try {
+            profiler.writeCsv(file);
+            logger.info("Wrote startup profile to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Couldn't write startup profile to " + file, e);
+        }
+    }
+
     private Logger logger = LogManager.getLogger();
 
     /**
@@ -469,25 +703,227 @@ public class Proxy {
     }
 
     /**
-     * Add an object to register later.
+     * Add an object to register later. Safe to call from any thread; objects
+     * registered for the current state are run before the state is left. Once
+     * the proxy starts leaving a state, only the thread running it may still
+     * register objects for it.
      * 
      * @param regObj
      *            - a registerable object to register later
+     * @throws IllegalStateException
+     *             if the object's register state has already been passed
      */
     public final void registerRegisterableObject(RegisterableObject<?> regObj) {
-        if (!okayToRegisterForObj(regObj)) {
-            throw new IllegalStateException(
-                    String.format("tried to register builder after its "
-                                          + "register state (%s/%s <= %s/%s)",
-                                  regObj.registerState(), regObj
-                                          .registerState().ordinal(),
-                                  lastPassedState, lastPassedState.ordinal()));
-        } else if (currentState != null
-                && regObj.registerState().compareTo(currentState) == 0) {
-            duringStateBuilders.add(regObj);
-            return;
+        checkDependencyStates(regObj);
+        State state = regObj.registerState();
+        if (!okayToRegisterForState(state)) {
+            throw tooLate(regObj);
+        }
+        int slot = builders.add(state, regObj);
+        if (slot == StateIndexedBuckets.RELEASED) {
+            throw tooLate(regObj);
+        }
+        /*
+         * If the state was passed while adding, leave() may have already
+         * drained the bucket for the last time. Taking the object back out
+         * means nobody will run it, so it's rejected. If it's already gone,
+         * leave() has it.
+         */
+        if (!okayToRegisterForState(state)
+                && builders.cancel(state, slot, regObj)) {
+            throw tooLate(regObj);
+        }
+    }
+
+    /**
+     * Add many objects to register later, as if by
+     * {@link #registerRegisterableObject(RegisterableObject)}. The state is
+     * only checked once for each distinct state in a batch, and each batch is
+     * added to its bucket in one go.
+     * 
+     * @param regObjs
+     *            - registerable objects to register later
+     * @throws IllegalStateException
+     *             if an object's register state has already been passed.
+     *             Objects before it may already be registered.
+     */
+    public final void registerAll(RegisterableObject<?>... regObjs) {
+        registerAll(Arrays.asList(regObjs).iterator());
+    }
+
+    /**
+     * Add many objects to register later, as if by
+     * {@link #registerRegisterableObject(RegisterableObject)}. The state is
+     * only checked once for each distinct state in a batch, and each batch is
+     * added to its bucket in one go.
+     * 
+     * @param regObjs
+     *            - registerable objects to register later
+     * @throws IllegalStateException
+     *             if an object's register state has already been passed.
+     *             Objects before it may already be registered.
+     */
+    public final void registerAll(
+            Iterable<? extends RegisterableObject<?>> regObjs) {
+        registerAll(regObjs.iterator());
+    }
+
+    /**
+     * Add many objects to register later, as if by
+     * {@link #registerRegisterableObject(RegisterableObject)}. The iterator is
+     * consumed in batches, so objects can be generated as they are registered
+     * instead of being held in memory all at once.
+     * 
+     * @param regObjs
+     *            - registerable objects to register later
+     * @throws IllegalStateException
+     *             if an object's register state has already been passed.
+     *             Objects before it may already be registered.
+     */
+    public final void registerAll(
+            Iterator<? extends RegisterableObject<?>> regObjs) {
+        Map<State, List<RegisterableObject<?>>> batch =
+                Maps.newEnumMap(State.class);
+        int size = 0;
+        while (regObjs.hasNext()) {
+            RegisterableObject<?> regObj = checkNotNull(regObjs.next());
+            checkDependencyStates(regObj);
+            State state = regObj.registerState();
+            List<RegisterableObject<?>> forState = batch.get(state);
+            if (forState == null) {
+                forState = Lists.newArrayList();
+                batch.put(state, forState);
+            }
+            forState.add(regObj);
+            if (++size == REGISTER_BATCH_SIZE) {
+                registerBatch(batch);
+                size = 0;
+            }
+        }
+        registerBatch(batch);
+    }
+
+    private static final int REGISTER_BATCH_SIZE = 1024;
+
+    private void registerBatch(Map<State, List<RegisterableObject<?>>> batch) {
+        for (Map.Entry<State, List<RegisterableObject<?>>> entry : batch
+                .entrySet()) {
+            State state = entry.getKey();
+            List<RegisterableObject<?>> regObjs = entry.getValue();
+            if (!okayToRegisterForState(state)) {
+                throw tooLate(regObjs.get(0));
+            }
+            int first = builders.addAll(state, regObjs);
+            if (first == StateIndexedBuckets.RELEASED) {
+                throw tooLate(regObjs.get(0));
+            }
+            // see registerRegisterableObject
+            if (!okayToRegisterForState(state)
+                    && builders.cancelAll(state, first, regObjs)) {
+                throw tooLate(regObjs.get(0));
+            }
         }
-        builders.put(regObj.registerState(), regObj);
+        batch.clear();
+    }
+
+    /**
+     * Run a task in the background. It may keep running while the proxy moves
+     * through other states, but it will be done before {@code requiredBy} is
+     * entered. Tasks must not register objects with Minecraft; they're meant
+     * for work such as preparing data that a later state needs. Failures are
+     * logged when the barrier is reached, and are also visible through the
+     * returned future.
+     * 
+     * @param <T>
+     *            - the task's result type
+     * @param task
+     *            - the task to run
+     * @param requiredBy
+     *            - the state that waits for the task, must be after the
+     *            current state
+     * @return the task's result
+     * @throws IllegalStateException
+     *             if {@code requiredBy} isn't after the current state
+     */
+    public final <T> ListenableFuture<T> submitTask(Callable<T> task,
+            State requiredBy) {
+        ListenableFutureTask<T> future = ListenableFutureTask.create(task);
+        if (!okayToSubmitForState(requiredBy)) {
+            throw tooLateForTask(requiredBy);
+        }
+        int slot = tasks.add(requiredBy, future);
+        if (slot == StateIndexedBuckets.RELEASED) {
+            throw tooLateForTask(requiredBy);
+        }
+        // like registerRegisterableObject, except enter() is the last drain
+        if (!okayToSubmitForState(requiredBy)
+                && tasks.cancel(requiredBy, slot, future)) {
+            throw tooLateForTask(requiredBy);
+        }
+        TaskPool.INSTANCE.execute(future);
+        return future;
+    }
+
+    private boolean okayToSubmitForState(State requiredBy) {
+        State current = currentState;
+        return requiredBy.compareTo(current == null ? lastPassedState
+                : current) > 0;
+    }
+
+    private IllegalStateException tooLateForTask(State requiredBy) {
+        State current = currentState;
+        return new IllegalStateException(String.format(
+                "tried to submit a task required by %s, but %s is %s",
+                requiredBy, current == null ? "last passed state"
+                        : "current state", current == null ? lastPassedState
+                        : current));
+    }
+
+    private void checkDependencyStates(RegisterableObject<?> regObj) {
+        for (RegisterableObject<?> dep : RegObjScheduler.dependencies(regObj)) {
+            checkArgument(dep.registerState()
+                                  .compareTo(regObj.registerState()) <= 0,
+                          "%s depends on %s, which has a later register state",
+                          regObj, dep);
+        }
+    }
+
+    /**
+     * Get the {@link RetainedRegisterableObject retained objects} that were run
+     * for a passed state, in the order they were run. Other objects are
+     * released once their state is passed.
+     * 
+     * @param state
+     *            - the state to get retained objects for
+     * @return the retained objects, or an empty list if the state hasn't been
+     *         passed
+     */
+    public List<RegisterableObject<?>> getRetainedObjects(State state) {
+        ImmutableList<RegisterableObject<?>> list =
+                retained.get(state.ordinal());
+        return list == null ? ImmutableList.<RegisterableObject<?>> of()
+                : list;
+    }
+
+    /**
+     * Get the number of objects this proxy has run and then released, because
+     * their state was passed and they weren't
+     * {@link RetainedRegisterableObject retained}.
+     * 
+     * @return the number of released objects
+     */
+    public long getReleasedObjectCount() {
+        return releasedCount.get();
+    }
+
+    private IllegalStateException tooLate(RegisterableObject<?> regObj) {
+        State lastPassed = lastPassedState;
+        return new IllegalStateException(
+                String.format("tried to register builder after its "
+                                      + "register state (%s/%s <= %s/%s)",
+                              regObj.registerState(), regObj
+                                      .registerState().ordinal(),
+                              lastPassed, lastPassed.ordinal()));
     }
 
     /**
@@ -513,29 +949,206 @@ public class Proxy {
      *         otherwise.
      */
     public boolean okayToRegisterForState(State state) {
-        // state is bigger than last passed or is the current state
-        return state.compareTo(lastPassedState) > 0
-                || (currentState != null && state.compareTo(currentState) == 0);
+        State current = currentState;
+        if (current != null && state.compareTo(current) == 0) {
+            // while leaving, only the loader thread may add to the state
+            return !leaving || Thread.currentThread() == loaderThread;
+        }
+        // state is bigger than last passed
+        return state.compareTo(lastPassedState) > 0;
     }
 
     private void runRegObjHook() {
-        for (RegisterableObject<?> regObj : builders.get(currentState)) {
-            exceptionCatchingRegObjHook(regObj);
+        runRegObjHooks(drain(currentState));
+    }
+
+    private void runQueued(State state) {
+        for (Collection<RegisterableObject<?>> queued = drain(state); !queued
+                .isEmpty(); queued = drain(state)) {
+            runRegObjHooks(queued);
+        }
+    }
+
+    private Collection<RegisterableObject<?>> drain(State state) {
+        // registering an object twice only runs it once
+        Set<RegisterableObject<?>> drained =
+                Sets.newLinkedHashSet(builders.drain(state));
+        drainedThisState += drained.size();
+        for (RegisterableObject<?> regObj : drained) {
+            if (regObj instanceof RetainedRegisterableObject) {
+                retainedThisState.add(regObj);
+            }
+        }
+        // deferred objects only get another try if something new came in
+        if (drained.isEmpty() || deferredThisState.isEmpty()) {
+            return drained;
         }
+        Set<RegisterableObject<?>> retry =
+                Sets.newLinkedHashSet(deferredThisState);
+        deferredThisState.clear();
+        retry.addAll(drained);
+        return retry;
     }
 
-    private void exceptionCatchingRegObjHook(RegisterableObject<?> regObj) {
+    private void runRegObjHooks(Collection<RegisterableObject<?>> regObjs) {
+        RegObjScheduler.Schedule schedule =
+                RegObjScheduler.schedule(regObjs, ranThisState);
+        for (RegisterableObject<?> regObj : schedule.cyclic) {
+            logger.error("RegisterableObject<?> " + regObj
+                    + " is part of, or depends on, a dependency cycle");
+            ranThisState.add(regObj);
+            failedThisState.add(regObj);
+        }
+        deferredThisState.addAll(schedule.deferred);
+        Set<RegisterableObject<?>> failed = failedThisState;
+        for (List<RegisterableObject<?>> wave : schedule.waves) {
+            ranThisState.addAll(wave);
+            List<RegisterableObject<?>> runnable =
+                    withoutFailedDependencies(wave, failed);
+            if (parallelCreate && runnable.size() > 1) {
+                parallelRegObjHooks(runnable, failed);
+                continue;
+            }
+            for (RegisterableObject<?> regObj : runnable) {
+                if (!exceptionCatchingRegObjHook(regObj)) {
+                    failed.add(regObj);
+                }
+            }
+        }
+    }
+
+    private List<RegisterableObject<?>> withoutFailedDependencies(
+            List<RegisterableObject<?>> wave, Set<RegisterableObject<?>> failed) {
+        if (failed.isEmpty()) {
+            return wave;
+        }
+        List<RegisterableObject<?>> runnable =
+                Lists.newArrayListWithCapacity(wave.size());
+        for (RegisterableObject<?> regObj : wave) {
+            if (Collections.disjoint(RegObjScheduler.dependencies(regObj),
+                                     failed)) {
+                runnable.add(regObj);
+            } else {
+                logger.error("RegisterableObject<?> " + regObj
+                        + " skipped, a dependency failed");
+                failed.add(regObj);
+            }
+        }
+        return runnable;
+    }
+
+    private void parallelRegObjHooks(List<RegisterableObject<?>> regObjs,
+            Set<RegisterableObject<?>> failed) {
+        List<Future<Throwable>> creates =
+                Lists.newArrayListWithCapacity(regObjs.size());
+        for (RegisterableObject<?> regObj : regObjs) {
+            creates.add(CreatePool.INSTANCE.submit(createTask(regObj)));
+        }
+        // register in queue order, on this thread
+        for (int i = 0; i < regObjs.size(); i++) {
+            RegisterableObject<?> regObj = regObjs.get(i);
+            Throwable failure;
+            try {
+                failure = Uninterruptibles.getUninterruptibly(creates.get(i));
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            }
+            if (failure != null) {
+                logger.error("RegisterableObject<?> " + regObj
+                        + " failed create hook", failure);
+                failed.add(regObj);
+                continue;
+            }
+            if (!exceptionCatchingRegisterHook(regObj)) {
+                failed.add(regObj);
+            }
+        }
+    }
+
+    private Callable<Throwable> createTask(final RegisterableObject<?> regObj) {
+        return new Callable<Throwable>() {
+            @Override
+            public Throwable call() {
+                // let create() find us like it would on the loader thread
+                markInUse();
+                ProxyProfiler profiler = Proxy.this.profiler;
+                ProxyProfiler.Sample sample =
+                        profiler == null ? null : profiler.start();
+                try {
+                    regObj.create();
+                    return null;
+                } catch (Throwable t) {
+                    return t;
+                } finally {
+                    if (sample != null) {
+                        profiler.stop(sample, regObj);
+                    }
+                    markDone();
+                }
+            }
+        };
+    }
+
+    private boolean exceptionCatchingRegObjHook(RegisterableObject<?> regObj) {
+        ProxyProfiler profiler = this.profiler;
+        ProxyProfiler.Sample sample = profiler == null ? null : profiler.start();
         try {
             regObjHook(regObj);
+            return true;
+        } catch (Throwable e) {
+            logger.error("RegisterableObject<?> " + regObj
+                                             + " failed register hook", e);
+            return false;
+        } finally {
+            if (sample != null) {
+                profiler.stop(sample, regObj);
+            }
+        }
+    }
+
+    private boolean exceptionCatchingRegisterHook(RegisterableObject<?> regObj) {
+        ProxyProfiler profiler = this.profiler;
+        ProxyProfiler.Sample sample = profiler == null ? null : profiler.start();
+        try {
+            registerHook(regObj);
+            return true;
         } catch (Throwable e) {
             logger.error("RegisterableObject<?> " + regObj
                                              + " failed register hook", e);
+            return false;
+        } finally {
+            if (sample != null) {
+                profiler.stop(sample, regObj);
+            }
         }
     }
 
-    protected void regObjHook(RegisterableObject<?> rbBuilder) throws Throwable {
-        rbBuilder.create();
-        rbBuilder.register();
+    /**
+     * Creates and registers the given object. Not used when
+     * {@linkplain #setParallelCreate(boolean) parallel create} is on; override
+     * {@link #registerHook(RegisterableObject)} to change registration.
+     * 
+     * @param regObj
+     *            - object to create and register
+     * @throws Throwable
+     *             exceptions propagate
+     */
+    protected void regObjHook(RegisterableObject<?> regObj) throws Throwable {
+        regObj.create();
+        registerHook(regObj);
+    }
+
+    /**
+     * Registers the given, already created, object. Always called on the
+     * loader thread.
+     * 
+     * @param regObj
+     *            - object to register
+     * @throws Throwable
+     *             exceptions propagate
+     */
+    protected void registerHook(RegisterableObject<?> regObj) throws Throwable {
+        regObj.register();
     }
 
     /**
@@ -0,0 +1,346 @@
+package com.techshroom.mods.common;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+
+/**
+ * Records wall time and allocated bytes for each {@link State} a
+ * {@link Proxy} passes, and for each {@link RegisterableObject} it runs.
+ * Allocated bytes are only known on JVMs that support per-thread allocation
+ * counters (HotSpot); otherwise they are reported as {@code -1}.
+ * 
+ * @author Kenzie Togami
+ * @see Proxy#setProfiling(boolean)
+ */
+public final class ProxyProfiler {
+    /**
+     * A finished measurement.
+     * 
+     * @author Kenzie Togami
+     */
+    public static final class Timing {
+        private final String name;
+        private final State state;
+        private final long wallNanos;
+        private final long allocatedBytes;
+
+        private Timing(String name, State state, long wallNanos,
+                long allocatedBytes) {
+            this.name = name;
+            this.state = state;
+            this.wallNanos = wallNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * @return the name of the measured thing
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the state this was measured in
+         */
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return wall time, in nanoseconds
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * @return allocated bytes, or {@code -1} if unknown
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(name).append(" in ").append(state.name()).append(": ")
+                    .append(wallNanos / 1000000).append(" ms");
+            if (allocatedBytes >= 0) {
+                sb.append(", ").append(allocatedBytes / 1024)
+                        .append(" KiB allocated");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A measurement in progress. Must be stopped on the thread that started
+     * it.
+     * 
+     * @author Kenzie Togami
+     */
+    static final class Sample {
+        private final long startNanos = System.nanoTime();
+        private final long startBytes = Allocations.currentThread();
+    }
+
+    private static final class ObjectTiming {
+        private final AtomicLong wallNanos = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+    }
+
+    /**
+     * Sorts timings by wall time, slowest first.
+     */
+    private static final Comparator<Timing> SLOWEST_FIRST =
+            new Comparator<Timing>() {
+                @Override
+                public int compare(Timing o1, Timing o2) {
+                    long a = o2.wallNanos;
+                    long b = o1.wallNanos;
+                    return a < b ? -1 : (a == b ? 0 : 1);
+                }
+            };
+
+    /**
+     * Check if allocated bytes can be measured on this JVM.
+     * 
+     * @return {@code true} if allocated bytes are recorded
+     */
+    public static boolean isAllocationCountingSupported() {
+        return Allocations.SUPPORTED;
+    }
+
+    private final Map<State, Timing> stateTimings = Maps.newConcurrentMap();
+    private final Queue<Timing> objectTimings =
+            new ConcurrentLinkedQueue<Timing>();
+    // weak keys (and identity), so builders aren't held past their state
+    private final ConcurrentMap<RegisterableObject<?>, ObjectTiming> running =
+            new MapMaker().weakKeys().makeMap();
+    private volatile Sample stateSample;
+
+    ProxyProfiler() {
+    }
+
+    void enterState() {
+        stateSample = new Sample();
+    }
+
+    void leaveState(State state) {
+        Sample sample = stateSample;
+        if (sample == null) {
+            return;
+        }
+        stateSample = null;
+        stateTimings.put(state,
+                         new Timing(state.name(), state, System.nanoTime()
+                                 - sample.startNanos, allocatedSince(sample)));
+        for (Map.Entry<RegisterableObject<?>, ObjectTiming> entry : running
+                .entrySet()) {
+            ObjectTiming timing = entry.getValue();
+            objectTimings.add(new Timing(entry.getKey().toString(), state,
+                    timing.wallNanos.get(), timing.allocatedBytes.get()));
+        }
+        running.clear();
+    }
+
+    Sample start() {
+        return new Sample();
+    }
+
+    void stop(Sample sample, RegisterableObject<?> regObj) {
+        long nanos = System.nanoTime() - sample.startNanos;
+        long bytes = allocatedSince(sample);
+        ObjectTiming timing = running.get(regObj);
+        if (timing == null) {
+            ObjectTiming created = new ObjectTiming();
+            timing = running.putIfAbsent(regObj, created);
+            if (timing == null) {
+                timing = created;
+            }
+        }
+        timing.wallNanos.addAndGet(nanos);
+        if (bytes < 0) {
+            timing.allocatedBytes.set(-1);
+        } else if (timing.allocatedBytes.get() >= 0) {
+            timing.allocatedBytes.addAndGet(bytes);
+        }
+    }
+
+    private static long allocatedSince(Sample sample) {
+        if (sample.startBytes < 0) {
+            return -1;
+        }
+        return Allocations.currentThread() - sample.startBytes;
+    }
+
+    /**
+     * Get the timing for a state, if it has been passed.
+     * 
+     * @param state
+     *            - the state
+     * @return the timing for the state
+     */
+    public Optional<Timing> getStateTiming(State state) {
+        return Optional.fromNullable(stateTimings.get(state));
+    }
+
+    /**
+     * Get the timings of every passed state, in state order.
+     * 
+     * @return the state timings
+     */
+    public ImmutableList<Timing> getStateTimings() {
+        ImmutableList.Builder<Timing> timings = ImmutableList.builder();
+        for (State state : State.values()) {
+            Timing timing = stateTimings.get(state);
+            if (timing != null) {
+                timings.add(timing);
+            }
+        }
+        return timings.build();
+    }
+
+    /**
+     * Get the timings of every RegisterableObject run in a passed state, in
+     * the order their states finished.
+     * 
+     * @return the object timings
+     */
+    public ImmutableList<Timing> getObjectTimings() {
+        return ImmutableList.copyOf(objectTimings);
+    }
+
+    /**
+     * Get the slowest RegisterableObjects.
+     * 
+     * @param count
+     *            - how many to return at most
+     * @return the slowest objects, slowest first
+     */
+    public ImmutableList<Timing> getSlowest(int count) {
+        checkArgument(count >= 0, "negative count");
+        List<Timing> sorted = Lists.newArrayList(objectTimings);
+        Collections.sort(sorted, SLOWEST_FIRST);
+        return ImmutableList.copyOf(sorted.subList(0,
+                                                   Math.min(count,
+                                                            sorted.size())));
+    }
+
+    /**
+     * Write every timing as CSV, with the header
+     * {@code kind,state,name,wall_ns,allocated_bytes}.
+     * 
+     * @param out
+     *            - where to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        checkNotNull(out);
+        out.append("kind,state,name,wall_ns,allocated_bytes\n");
+        for (Timing timing : getStateTimings()) {
+            appendCsvRow(out, "state", timing);
+        }
+        for (Timing timing : objectTimings) {
+            appendCsvRow(out, "object", timing);
+        }
+    }
+
+    /**
+     * Write every timing as CSV to the given file.
+     * 
+     * @param file
+     *            - file to write
+     * @throws IOException
+     *             if writing fails
+     * @see #writeCsv(Appendable)
+     */
+    public void writeCsv(File file) throws IOException {
+        Closer closer = Closer.create();
+        try {
+            Writer writer =
+                    closer.register(Files.newWriter(file, Charsets.UTF_8));
+            writeCsv(writer);
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
+
+    private static void appendCsvRow(Appendable out, String kind,
+            Timing timing) throws IOException {
+        out.append(kind).append(',').append(timing.state.name()).append(',')
+                .append('"').append(timing.name.replace("\"", "\"\""))
+                .append('"').append(',')
+                .append(String.valueOf(timing.wallNanos)).append(',')
+                .append(String.valueOf(timing.allocatedBytes)).append('\n');
+    }
+
+    /**
+     * Per-thread allocation counters, kept separate so that JVMs without
+     * {@code com.sun.management} can still load the profiler.
+     */
+    private static final class Allocations {
+        private static final boolean SUPPORTED = checkSupported();
+
+        private static boolean checkSupported() {
+            try {
+                return HotSpot.enable();
+            } catch (Throwable t) {
+                return false;
+            }
+        }
+
+        static long currentThread() {
+            if (!SUPPORTED) {
+                return -1;
+            }
+            return HotSpot.currentThread();
+        }
+    }
+
+    private static final class HotSpot {
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory
+                        .getThreadMXBean();
+
+        static boolean enable() {
+            if (!THREADS.isThreadAllocatedMemorySupported()) {
+                return false;
+            }
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+            return THREADS.isThreadAllocatedMemoryEnabled();
+        }
+
+        static long currentThread() {
+            return THREADS.getThreadAllocatedBytes(Thread.currentThread()
+                    .getId());
+        }
+    }
+}
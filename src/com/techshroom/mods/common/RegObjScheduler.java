@@ -0,0 +1,193 @@
+package com.techshroom.mods.common;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.techshroom.mods.common.proxybuilders.DependentRegisterableObject;
+import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+
+/**
+ * Orders the RegisterableObjects of one state by their
+ * {@linkplain DependentRegisterableObject#dependsOn() dependencies}.
+ * 
+ * @author Kenzie Togami
+ */
+final class RegObjScheduler {
+    /**
+     * The result of scheduling.
+     */
+    static final class Schedule {
+        /**
+         * Objects in a wave only depend on objects in earlier waves. Each wave
+         * keeps the original queue order.
+         */
+        final ImmutableList<ImmutableList<RegisterableObject<?>>> waves;
+        /**
+         * Objects that are part of, or depend on, a dependency cycle.
+         */
+        final ImmutableList<RegisterableObject<?>> cyclic;
+        /**
+         * Objects that depend, directly or through other deferred objects, on
+         * a same-state object that hasn't run yet. They can only run in a
+         * later drain.
+         */
+        final ImmutableList<RegisterableObject<?>> deferred;
+
+        private Schedule(
+                ImmutableList<ImmutableList<RegisterableObject<?>>> waves,
+                ImmutableList<RegisterableObject<?>> cyclic,
+                ImmutableList<RegisterableObject<?>> deferred) {
+            this.waves = waves;
+            this.cyclic = cyclic;
+            this.deferred = deferred;
+        }
+    }
+
+    /**
+     * Schedule the given objects.
+     * 
+     * @param regObjs
+     *            - objects queued for a single state
+     * @param alreadyRun
+     *            - objects of the same state that ran in earlier drains
+     * @return the waves to run, and the objects that can't be run yet
+     */
+    static Schedule schedule(Collection<RegisterableObject<?>> regObjs,
+            Set<RegisterableObject<?>> alreadyRun) {
+        List<RegisterableObject<?>> list = ImmutableList.copyOf(regObjs);
+        if (!anyDependent(list)) {
+            ImmutableList<ImmutableList<RegisterableObject<?>>> waves =
+                    list.isEmpty() ? ImmutableList
+                            .<ImmutableList<RegisterableObject<?>>> of()
+                            : ImmutableList.of(ImmutableList.copyOf(list));
+            return new Schedule(waves,
+                    ImmutableList.<RegisterableObject<?>> of(),
+                    ImmutableList.<RegisterableObject<?>> of());
+        }
+        int size = list.size();
+        Map<RegisterableObject<?>, Integer> index =
+                Maps.newHashMapWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            index.put(list.get(i), i);
+        }
+        // Kahn's algorithm, one wave at a time
+        int[] pending = new int[size];
+        boolean[] missing = new boolean[size];
+        ListMultimap<Integer, Integer> dependents = ArrayListMultimap.create();
+        for (int i = 0; i < size; i++) {
+            RegisterableObject<?> regObj = list.get(i);
+            for (RegisterableObject<?> dep : dependencies(regObj)) {
+                Integer depIndex = index.get(dep);
+                if (depIndex != null) {
+                    pending[i]++;
+                    dependents.put(depIndex, i);
+                } else if (dep.registerState() == regObj.registerState()
+                        && !alreadyRun.contains(dep)) {
+                    // queued later in this state, or never; never ready here
+                    pending[i]++;
+                    missing[i] = true;
+                }
+            }
+        }
+        ImmutableList.Builder<ImmutableList<RegisterableObject<?>>> waves =
+                ImmutableList.builder();
+        List<Integer> current = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            if (pending[i] == 0) {
+                current.add(i);
+            }
+        }
+        int done = 0;
+        while (!current.isEmpty()) {
+            ImmutableList.Builder<RegisterableObject<?>> wave =
+                    ImmutableList.builder();
+            List<Integer> next = Lists.newArrayList();
+            for (int i : current) {
+                wave.add(list.get(i));
+                for (int dependent : dependents.get(i)) {
+                    if (--pending[dependent] == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            waves.add(wave.build());
+            done += current.size();
+            Collections.sort(next);
+            current = next;
+        }
+        ImmutableList.Builder<RegisterableObject<?>> cyclic =
+                ImmutableList.builder();
+        ImmutableList.Builder<RegisterableObject<?>> deferred =
+                ImmutableList.builder();
+        if (done < size) {
+            boolean[] waiting = waitingOnMissing(missing, dependents);
+            for (int i = 0; i < size; i++) {
+                if (pending[i] > 0) {
+                    (waiting[i] ? deferred : cyclic).add(list.get(i));
+                }
+            }
+        }
+        return new Schedule(waves.build(), cyclic.build(), deferred.build());
+    }
+
+    private static boolean[] waitingOnMissing(boolean[] missing,
+            ListMultimap<Integer, Integer> dependents) {
+        boolean[] waiting = missing.clone();
+        List<Integer> stack = Lists.newArrayList();
+        for (int i = 0; i < missing.length; i++) {
+            if (missing[i]) {
+                stack.add(i);
+            }
+        }
+        while (!stack.isEmpty()) {
+            int i = stack.remove(stack.size() - 1);
+            for (int dependent : dependents.get(i)) {
+                if (!waiting[dependent]) {
+                    waiting[dependent] = true;
+                    stack.add(dependent);
+                }
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Get the dependencies of an object.
+     * 
+     * @param regObj
+     *            - the object
+     * @return its dependencies, empty if it doesn't declare any
+     */
+    static Collection<? extends RegisterableObject<?>> dependencies(
+            RegisterableObject<?> regObj) {
+        if (regObj instanceof DependentRegisterableObject) {
+            Collection<? extends RegisterableObject<?>> deps =
+                    ((DependentRegisterableObject<?>) regObj).dependsOn();
+            if (deps != null) {
+                return deps;
+            }
+        }
+        return ImmutableList.of();
+    }
+
+    private static boolean anyDependent(List<RegisterableObject<?>> list) {
+        for (RegisterableObject<?> regObj : list) {
+            if (regObj instanceof DependentRegisterableObject) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RegObjScheduler() {
+        throw new AssertionError();
+    }
+}
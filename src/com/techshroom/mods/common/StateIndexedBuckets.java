@@ -0,0 +1,268 @@
+package com.techshroom.mods.common;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.Proxy.State;
+
+/**
+ * Per-{@link State} buckets of elements, indexed by {@link State#ordinal()}.
+ * Each bucket is a growable array that keeps insertion order. Any thread may
+ * add to a bucket, but only one thread may drain it at a time. Once a state is
+ * passed its bucket is {@linkplain #release(State) released}, so the elements
+ * can be collected.
+ *
+ * @author Kenzie Togami
+ * @param <E>
+ *            - the element type
+ */
+final class StateIndexedBuckets<E> {
+    /**
+     * Returned by {@link #add(State, Object)} when the bucket is released.
+     */
+    static final int RELEASED = -1;
+
+    private final Bucket<E>[] buckets;
+
+    StateIndexedBuckets() {
+        @SuppressWarnings("unchecked")
+        Bucket<E>[] buckets = new Bucket[State.values().length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket<E>();
+        }
+        this.buckets = buckets;
+    }
+
+    /**
+     * Add an element to the end of the state's bucket.
+     *
+     * @param state
+     *            - the bucket's state
+     * @param element
+     *            - the element to add
+     * @return the element's slot, for {@link #cancel(State, int, Object)}, or
+     *         {@link #RELEASED} if the bucket is released
+     */
+    int add(State state, E element) {
+        checkNotNull(element);
+        return buckets[state.ordinal()].add(element);
+    }
+
+    /**
+     * Add elements to the end of the state's bucket, in order. Their slots
+     * are reserved together, so the elements stay next to each other.
+     *
+     * @param state
+     *            - the bucket's state
+     * @param elements
+     *            - the elements to add
+     * @return the first element's slot, for
+     *         {@link #cancelAll(State, int, List)}, or {@link #RELEASED} if the
+     *         bucket is released
+     */
+    int addAll(State state, List<? extends E> elements) {
+        for (E element : elements) {
+            checkNotNull(element);
+        }
+        return buckets[state.ordinal()].addAll(elements);
+    }
+
+    /**
+     * Take elements added by {@link #addAll(State, List)} back out of the
+     * state's bucket, if they haven't been drained yet.
+     *
+     * @param state
+     *            - the bucket's state
+     * @param first
+     *            - the slot from {@link #addAll(State, List)}
+     * @param elements
+     *            - the elements that were added
+     * @return {@code true} if any element was taken out
+     */
+    boolean cancelAll(State state, int first, List<? extends E> elements) {
+        Bucket<E> bucket = buckets[state.ordinal()];
+        boolean any = false;
+        for (int i = 0; i < elements.size(); i++) {
+            any |= bucket.cancel(first + i, elements.get(i));
+        }
+        return any;
+    }
+
+    /**
+     * Take an element back out of the state's bucket, if it hasn't been
+     * drained yet. Still works after the bucket is released.
+     *
+     * @param state
+     *            - the bucket's state
+     * @param slot
+     *            - the slot from {@link #add(State, Object)}
+     * @param element
+     *            - the element that was added
+     * @return {@code true} if the element was taken out, {@code false} if it
+     *         was already drained
+     */
+    boolean cancel(State state, int slot, E element) {
+        return buckets[state.ordinal()].cancel(slot, element);
+    }
+
+    /**
+     * Take every element added to the state's bucket before this call, in the
+     * order they were added. Elements added during the call are left for the
+     * next one.
+     *
+     * @param state
+     *            - the bucket's state
+     * @return the drained elements
+     */
+    List<E> drain(State state) {
+        return buckets[state.ordinal()].drain();
+    }
+
+    /**
+     * Drop the contents of the state's bucket. Must be called by the draining
+     * thread. Adds after this return {@link #RELEASED}.
+     *
+     * @param state
+     *            - the bucket's state
+     */
+    void release(State state) {
+        buckets[state.ordinal()].release();
+    }
+
+    /**
+     * Check if the state's bucket has been released.
+     *
+     * @param state
+     *            - the bucket's state
+     * @return {@code true} if {@link #release(State)} was called for the state
+     */
+    boolean isReleased(State state) {
+        return buckets[state.ordinal()].releasedAt >= 0;
+    }
+
+    // markers for slots that shouldn't be drained again
+    private static final Object TAKEN = new Object();
+    private static final Object CANCELLED = new Object();
+
+    private static final int FIRST_CHUNK_BITS = 4;
+    // chunk n holds 16 << n slots
+    private static final int CHUNKS = 26;
+    private static final int MAX_SLOTS = ((1 << CHUNKS) - 1) << FIRST_CHUNK_BITS;
+
+    /**
+     * An append-only array made of chunks that double in size, so growing
+     * never copies. Slots are reserved with a counter, then filled.
+     */
+    private static final class Bucket<E> {
+        private final AtomicReferenceArray<AtomicReferenceArray<Object>> chunks =
+                new AtomicReferenceArray<AtomicReferenceArray<Object>>(CHUNKS);
+        private final AtomicInteger reserved = new AtomicInteger();
+        // only touched by the draining thread
+        private int drained;
+        // how much was drained when released, or -1
+        private volatile int releasedAt = -1;
+
+        int add(E element) {
+            return addAll(Collections.singletonList(element));
+        }
+
+        int addAll(List<? extends E> elements) {
+            if (releasedAt >= 0) {
+                return RELEASED;
+            }
+            int count = elements.size();
+            int first = reserved.getAndAdd(count);
+            if (first < 0 || first > MAX_SLOTS - count) {
+                // don't leave drains waiting on the slots we reserved, only
+                // ones below MAX_SLOTS are ever drained
+                if (first >= 0) {
+                    int end = (int) Math.min((long) first + count, MAX_SLOTS);
+                    for (int slot = first; slot < end; slot++) {
+                        chunkFor(slot).set(indexInChunk(slot), CANCELLED);
+                    }
+                }
+                throw new IllegalStateException("bucket is full");
+            }
+            int slot = first;
+            for (E element : elements) {
+                chunkFor(slot).set(indexInChunk(slot), element);
+                slot++;
+            }
+            return first;
+        }
+
+        boolean cancel(int slot, E element) {
+            int released = releasedAt;
+            if (released >= 0) {
+                // anything past the last drain was never taken
+                return slot >= released;
+            }
+            return chunkFor(slot).compareAndSet(indexInChunk(slot), element,
+                                                CANCELLED);
+        }
+
+        void release() {
+            if (releasedAt >= 0) {
+                return;
+            }
+            releasedAt = drained;
+            for (int i = 0; i < chunks.length(); i++) {
+                chunks.set(i, null);
+            }
+        }
+
+        List<E> drain() {
+            if (releasedAt >= 0) {
+                return Collections.emptyList();
+            }
+            int end = reserved.get();
+            if (end < 0 || end > MAX_SLOTS) {
+                end = MAX_SLOTS;
+            }
+            List<E> out = Lists.newArrayListWithCapacity(end - drained);
+            for (; drained < end; drained++) {
+                AtomicReferenceArray<Object> chunk = chunkFor(drained);
+                int index = indexInChunk(drained);
+                Object value;
+                // the slot is reserved, but may not be filled yet
+                while ((value = chunk.get(index)) == null) {
+                    Thread.yield();
+                }
+                if (value != CANCELLED
+                        && chunk.compareAndSet(index, value, TAKEN)) {
+                    @SuppressWarnings("unchecked")
+                    E element = (E) value;
+                    out.add(element);
+                }
+            }
+            return out;
+        }
+
+        private AtomicReferenceArray<Object> chunkFor(int slot) {
+            int n = chunkIndex(slot);
+            AtomicReferenceArray<Object> chunk = chunks.get(n);
+            if (chunk == null) {
+                chunks.compareAndSet(n, null, new AtomicReferenceArray<Object>(
+                        1 << (n + FIRST_CHUNK_BITS)));
+                chunk = chunks.get(n);
+            }
+            return chunk;
+        }
+    }
+
+    private static int chunkIndex(int slot) {
+        // chunk n starts at (16 << n) - 16
+        int shifted = (slot >>> FIRST_CHUNK_BITS) + 1;
+        return 31 - Integer.numberOfLeadingZeros(shifted);
+    }
+
+    private static int indexInChunk(int slot) {
+        int n = chunkIndex(slot);
+        return slot - ((1 << (n + FIRST_CHUNK_BITS)) - (1 << FIRST_CHUNK_BITS));
+    }
+}
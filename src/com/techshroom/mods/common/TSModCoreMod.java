@@ -4,7 +4,11 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLConstructionEvent;
+import net.minecraftforge.fml.common.event.FMLLoadCompleteEvent;
 
+import org.apache.logging.log4j.LogManager;
+
+import com.techshroom.mods.common.proxybuilders.IngredientPool;
 import com.techshroom.mods.common.proxybuilders.PhasePrinter;
 
 /**
@@ -43,4 +47,12 @@ public class TSModCoreMod {
     public void construct(FMLConstructionEvent e) {
         PhasePrinter.addPrinter(PROXY, ID);
     }
+
+    @SuppressWarnings("javadoc")
+    @EventHandler
+    public void loadComplete(FMLLoadCompleteEvent e) {
+        // every mod's recipes are registered and interned by now
+        LogManager.getLogger(ID).info("Recipe ingredient sharing: "
+                + IngredientPool.describe());
+    }
 }
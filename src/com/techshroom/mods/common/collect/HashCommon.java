@@ -0,0 +1,61 @@
+package com.techshroom.mods.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Sizing and hashing shared by the open-addressed maps.
+ *
+ * @author Kenzie Togami
+ */
+final class HashCommon {
+    static final float LOAD_FACTOR = 0.75f;
+    static final int DEFAULT_EXPECTED_SIZE = 12;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Spread the bits of a hash code so the low bits can index a table.
+     */
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The table size, a power of two, for holding {@code expectedSize}
+     * entries.
+     */
+    static int capacityFor(int expectedSize) {
+        checkArgument(expectedSize >= 0, "expectedSize cannot be negative: %s",
+                      expectedSize);
+        long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        if (needed >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    static int thresholdFor(int capacity) {
+        return Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("map is full");
+        }
+        return capacity << 1;
+    }
+
+    /**
+     * Check if, when emptying {@code last}, the entry at {@code pos} that
+     * wants {@code slot} can move back to {@code last}. It can unless its slot
+     * is after {@code last}, counting around the end of the table.
+     */
+    static boolean canMoveBack(int last, int pos, int slot) {
+        return last <= pos ? last >= slot || slot > pos
+                : last >= slot && slot > pos;
+    }
+
+    private HashCommon() {
+        throw new AssertionError();
+    }
+}
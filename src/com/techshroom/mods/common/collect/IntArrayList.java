@@ -0,0 +1,275 @@
+package com.techshroom.mods.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+
+import java.util.Arrays;
+
+import com.techshroom.mods.common.java8.function.IntUnaryOperator;
+
+/**
+ * A growable list of {@code int} that doesn't box.
+ *
+ * @author Kenzie Togami
+ */
+public final class IntArrayList {
+    private static final int[] EMPTY = {};
+    private static final int MIN_GROWTH = 8;
+
+    /**
+     * Creates a new, empty list.
+     *
+     * @return a new list
+     */
+    public static IntArrayList create() {
+        return new IntArrayList(EMPTY, 0);
+    }
+
+    /**
+     * Creates a new, empty list that holds {@code expectedSize} elements
+     * without growing.
+     *
+     * @param expectedSize
+     *            - the number of elements expected
+     * @return a new list
+     */
+    public static IntArrayList createWithExpectedSize(int expectedSize) {
+        checkArgument(expectedSize >= 0, "expectedSize cannot be negative: %s",
+                      expectedSize);
+        return new IntArrayList(new int[expectedSize], 0);
+    }
+
+    /**
+     * Creates a new list holding the given elements.
+     *
+     * @param elements
+     *            - the elements
+     * @return a new list
+     */
+    public static IntArrayList of(int... elements) {
+        return new IntArrayList(elements.clone(), elements.length);
+    }
+
+    private int[] elements;
+    private int size;
+
+    private IntArrayList(int[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if there are no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index
+     *            - the element's index
+     * @return the element
+     */
+    public int get(int index) {
+        checkElementIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index
+     *            - the element's index
+     * @param element
+     *            - the new element
+     * @return the old element
+     */
+    public int set(int index, int element) {
+        checkElementIndex(index, size);
+        int old = elements[index];
+        elements[index] = element;
+        return old;
+    }
+
+    /**
+     * Add an element to the end.
+     *
+     * @param element
+     *            - the element to add
+     */
+    public void add(int element) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        elements[size++] = element;
+    }
+
+    /**
+     * Insert an element.
+     *
+     * @param index
+     *            - where to insert
+     * @param element
+     *            - the element to add
+     */
+    public void add(int index, int element) {
+        checkPositionIndex(index, size);
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    /**
+     * Add elements to the end.
+     *
+     * @param added
+     *            - the elements to add
+     */
+    public void addAll(int... added) {
+        ensureCapacity(size + added.length);
+        System.arraycopy(added, 0, elements, size, added.length);
+        size += added.length;
+    }
+
+    /**
+     * Remove an element.
+     *
+     * @param index
+     *            - the element's index
+     * @return the removed element
+     */
+    public int removeAt(int index) {
+        checkElementIndex(index, size);
+        int old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index
+                - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * @param element
+     *            - the element to look for
+     * @return the first index of the element, or {@code -1}
+     */
+    public int indexOf(int element) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param element
+     *            - the element to look for
+     * @return {@code true} if the list contains the element
+     */
+    public boolean contains(int element) {
+        return indexOf(element) >= 0;
+    }
+
+    /**
+     * Replace every element with the result of applying the operator to it.
+     *
+     * @param operator
+     *            - the operator to apply
+     */
+    public void replaceAll(IntUnaryOperator operator) {
+        checkNotNull(operator);
+        for (int i = 0; i < size; i++) {
+            elements[i] = operator.applyAsInt(elements[i]);
+        }
+    }
+
+    /**
+     * Sort the elements in ascending order.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Remove every element.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Make sure the list can hold {@code capacity} elements without growing.
+     *
+     * @param capacity
+     *            - the capacity needed
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            int grown = elements.length + Math.max(MIN_GROWTH,
+                                                   elements.length >> 1);
+            elements = Arrays.copyOf(elements, Math.max(capacity, grown));
+        }
+    }
+
+    /**
+     * Drop any spare capacity.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * @return the elements in a new array
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof IntArrayList)) {
+            return false;
+        }
+        IntArrayList that = (IntArrayList) obj;
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != that.elements[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + elements[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
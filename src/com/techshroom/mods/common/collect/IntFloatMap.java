@@ -0,0 +1,213 @@
+package com.techshroom.mods.common.collect;
+
+import com.techshroom.mods.common.java8.optional.OptionalFloat;
+
+/**
+ * A map from {@code int} to {@code float} that doesn't box. Values are kept
+ * as their {@linkplain Float#floatToIntBits(float) bits} in an
+ * {@link IntIntMap}, so they compare like {@link Float#equals(Object)}.
+ *
+ * @author Kenzie Togami
+ */
+public final class IntFloatMap {
+    /**
+     * Walks over the entries of a map, in no particular order. Only values may
+     * be changed while walking.
+     *
+     * @author Kenzie Togami
+     */
+    public final class Cursor {
+        private final IntIntMap.Cursor delegate = bits.cursor();
+
+        private Cursor() {
+        }
+
+        /**
+         * Move to the next entry.
+         *
+         * @return {@code true} if there is an entry
+         */
+        public boolean advance() {
+            return delegate.advance();
+        }
+
+        /**
+         * @return the current key
+         */
+        public int key() {
+            return delegate.key();
+        }
+
+        /**
+         * @return the current value
+         */
+        public float value() {
+            return Float.intBitsToFloat(delegate.value());
+        }
+
+        /**
+         * Replace the current value.
+         *
+         * @param value
+         *            - the new value
+         */
+        public void setValue(float value) {
+            delegate.setValue(Float.floatToIntBits(value));
+        }
+    }
+
+    /**
+     * Creates a new, empty map.
+     *
+     * @return a new map
+     */
+    public static IntFloatMap create() {
+        return new IntFloatMap(IntIntMap.create());
+    }
+
+    /**
+     * Creates a new, empty map that holds {@code expectedSize} entries without
+     * growing.
+     *
+     * @param expectedSize
+     *            - the number of entries expected
+     * @return a new map
+     */
+    public static IntFloatMap createWithExpectedSize(int expectedSize) {
+        return new IntFloatMap(IntIntMap.createWithExpectedSize(expectedSize));
+    }
+
+    private final IntIntMap bits;
+
+    private IntFloatMap(IntIntMap bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return bits.size();
+    }
+
+    /**
+     * @return {@code true} if there are no entries
+     */
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    /**
+     * @param key
+     *            - the key to look for
+     * @return {@code true} if the key is in the map
+     */
+    public boolean containsKey(int key) {
+        return bits.containsKey(key);
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @param defaultValue
+     *            - the value to return if the key isn't in the map
+     * @return the key's value, or {@code defaultValue}
+     */
+    public float get(int key, float defaultValue) {
+        return Float.intBitsToFloat(bits.get(key, Float
+                .floatToIntBits(defaultValue)));
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @return the key's value, if it is in the map
+     */
+    public OptionalFloat get(int key) {
+        if (!bits.containsKey(key)) {
+            return OptionalFloat.absent();
+        }
+        return OptionalFloat.of(get(key, 0));
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key
+     *            - the key
+     * @param value
+     *            - the value
+     * @return {@code true} if the key wasn't in the map before
+     */
+    public boolean put(int key, float value) {
+        return bits.put(key, Float.floatToIntBits(value));
+    }
+
+    /**
+     * Add to the value for a key, starting from {@code 0} if the key isn't in
+     * the map.
+     *
+     * @param key
+     *            - the key
+     * @param increment
+     *            - the amount to add
+     * @return the new value
+     */
+    public float addTo(int key, float increment) {
+        float value = get(key, 0) + increment;
+        bits.put(key, Float.floatToIntBits(value));
+        return value;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key
+     *            - the key to remove
+     * @return {@code true} if the key was in the map
+     */
+    public boolean remove(int key) {
+        return bits.remove(key);
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        bits.clear();
+    }
+
+    /**
+     * @return a cursor before the first entry
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof IntFloatMap
+                && bits.equals(((IntFloatMap) obj).bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Cursor c = cursor(); c.advance();) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(c.key()).append('=').append(c.value());
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,410 @@
+package com.techshroom.mods.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.techshroom.mods.common.collect.HashCommon.capacityFor;
+import static com.techshroom.mods.common.collect.HashCommon.grow;
+import static com.techshroom.mods.common.collect.HashCommon.mix;
+import static com.techshroom.mods.common.collect.HashCommon.canMoveBack;
+import static com.techshroom.mods.common.collect.HashCommon.thresholdFor;
+
+import java.util.Arrays;
+
+import com.techshroom.mods.common.java8.function.IntUnaryOperator;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * A map from {@code int} to {@code int} that doesn't box. Key {@code 0} is
+ * kept outside the table, since it marks empty slots.
+ *
+ * @author Kenzie Togami
+ */
+public final class IntIntMap {
+    /**
+     * Walks over the entries of a map, in no particular order. Only values may
+     * be changed while walking.
+     *
+     * @author Kenzie Togami
+     */
+    public final class Cursor {
+        // -1 is the zero key, then the table
+        private int pos = -2;
+
+        private Cursor() {
+        }
+
+        /**
+         * Move to the next entry.
+         *
+         * @return {@code true} if there is an entry
+         */
+        public boolean advance() {
+            if (pos == -2) {
+                pos = -1;
+                if (hasZeroKey) {
+                    return true;
+                }
+            }
+            while (++pos < keys.length) {
+                if (keys[pos] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the current key
+         */
+        public int key() {
+            checkEntry();
+            return pos < 0 ? 0 : keys[pos];
+        }
+
+        /**
+         * @return the current value
+         */
+        public int value() {
+            checkEntry();
+            return pos < 0 ? zeroValue : values[pos];
+        }
+
+        /**
+         * Replace the current value.
+         *
+         * @param value
+         *            - the new value
+         */
+        public void setValue(int value) {
+            checkEntry();
+            if (pos < 0) {
+                zeroValue = value;
+            } else {
+                values[pos] = value;
+            }
+        }
+
+        private void checkEntry() {
+            checkState(pos >= -1 && pos < keys.length, "no current entry");
+        }
+    }
+
+    /**
+     * Creates a new, empty map.
+     *
+     * @return a new map
+     */
+    public static IntIntMap create() {
+        return new IntIntMap(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a new, empty map that holds {@code expectedSize} entries without
+     * growing.
+     *
+     * @param expectedSize
+     *            - the number of entries expected
+     * @return a new map
+     */
+    public static IntIntMap createWithExpectedSize(int expectedSize) {
+        return new IntIntMap(expectedSize);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private IntIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = thresholdFor(capacity);
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if there are no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // the key's slot, or the empty slot it would go in
+    private int find(int key) {
+        int pos = mix(key) & mask;
+        int current;
+        while ((current = keys[pos]) != 0 && current != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    /**
+     * @param key
+     *            - the key to look for
+     * @return {@code true} if the key is in the map
+     */
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return keys[find(key)] != 0;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @param defaultValue
+     *            - the value to return if the key isn't in the map
+     * @return the key's value, or {@code defaultValue}
+     */
+    public int get(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int pos = find(key);
+        return keys[pos] != 0 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @return the key's value, if it is in the map
+     */
+    public OptionalInt get(int key) {
+        if (!containsKey(key)) {
+            return OptionalInt.absent();
+        }
+        return OptionalInt.of(get(key, 0));
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key
+     *            - the key
+     * @param value
+     *            - the value
+     * @return {@code true} if the key wasn't in the map before
+     */
+    public boolean put(int key, int value) {
+        if (key == 0) {
+            zeroValue = value;
+            if (hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+        int pos = find(key);
+        if (keys[pos] != 0) {
+            values[pos] = value;
+            return false;
+        }
+        insertAt(pos, key, value);
+        return true;
+    }
+
+    /**
+     * Add to the value for a key, starting from {@code 0} if the key isn't in
+     * the map.
+     *
+     * @param key
+     *            - the key
+     * @param increment
+     *            - the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int increment) {
+        if (key == 0) {
+            int value = (hasZeroKey ? zeroValue : 0) + increment;
+            put(0, value);
+            return value;
+        }
+        int pos = find(key);
+        if (keys[pos] != 0) {
+            return values[pos] += increment;
+        }
+        insertAt(pos, key, increment);
+        return increment;
+    }
+
+    /**
+     * Get the value for a key, computing and storing it if the key isn't in
+     * the map. If the function adds the key itself, the computed value
+     * replaces the one it added.
+     *
+     * @param key
+     *            - the key
+     * @param function
+     *            - computes the value from the key
+     * @return the key's value
+     */
+    public int computeIfAbsent(int key, IntUnaryOperator function) {
+        checkNotNull(function);
+        if (key == 0) {
+            if (!hasZeroKey) {
+                put(0, function.applyAsInt(0));
+            }
+            return zeroValue;
+        }
+        int pos = find(key);
+        if (keys[pos] != 0) {
+            return values[pos];
+        }
+        int value = function.applyAsInt(key);
+        // the function may have changed the map, even added the key
+        pos = find(key);
+        if (keys[pos] != 0) {
+            values[pos] = value;
+        } else {
+            insertAt(pos, key, value);
+        }
+        return value;
+    }
+
+    private void insertAt(int pos, int key, int value) {
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size - (hasZeroKey ? 1 : 0) > threshold) {
+            rehash(grow(keys.length));
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int pos = find(key);
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key
+     *            - the key to remove
+     * @return {@code true} if the key was in the map
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int pos = find(key);
+        if (keys[pos] == 0) {
+            return false;
+        }
+        removeAt(pos);
+        return true;
+    }
+
+    private void removeAt(int pos) {
+        size--;
+        // shift later entries back so probes don't stop early
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            int current;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                if (canMoveBack(last, pos, mix(current) & mask)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * @return a cursor before the first entry
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof IntIntMap)) {
+            return false;
+        }
+        IntIntMap that = (IntIntMap) obj;
+        if (size != that.size) {
+            return false;
+        }
+        for (Cursor c = cursor(); c.advance();) {
+            int key = c.key();
+            if (!that.containsKey(key) || that.get(key, 0) != c.value()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Cursor c = cursor(); c.advance();) {
+            hash += c.key() ^ c.value();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Cursor c = cursor(); c.advance();) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(c.key()).append('=').append(c.value());
+        }
+        return builder.append('}').toString();
+    }
+}
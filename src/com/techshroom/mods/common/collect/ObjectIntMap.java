@@ -0,0 +1,374 @@
+package com.techshroom.mods.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.techshroom.mods.common.collect.HashCommon.capacityFor;
+import static com.techshroom.mods.common.collect.HashCommon.grow;
+import static com.techshroom.mods.common.collect.HashCommon.mix;
+import static com.techshroom.mods.common.collect.HashCommon.canMoveBack;
+import static com.techshroom.mods.common.collect.HashCommon.thresholdFor;
+
+import java.util.Arrays;
+
+import com.techshroom.mods.common.java8.function.ToIntFunction;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * A map from objects to {@code int} that doesn't box the values. Keys are
+ * compared with {@link Object#equals(Object)} and cannot be {@code null}.
+ *
+ * @author Kenzie Togami
+ * @param <K>
+ *            - the key type
+ */
+public final class ObjectIntMap<K> {
+    /**
+     * Walks over the entries of a map, in no particular order. Only values may
+     * be changed while walking.
+     *
+     * @author Kenzie Togami
+     */
+    public final class Cursor {
+        private int pos = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Move to the next entry.
+         *
+         * @return {@code true} if there is an entry
+         */
+        public boolean advance() {
+            while (++pos < keys.length) {
+                if (keys[pos] != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the current key
+         */
+        public K key() {
+            checkEntry();
+            @SuppressWarnings("unchecked")
+            K key = (K) keys[pos];
+            return key;
+        }
+
+        /**
+         * @return the current value
+         */
+        public int value() {
+            checkEntry();
+            return values[pos];
+        }
+
+        /**
+         * Replace the current value.
+         *
+         * @param value
+         *            - the new value
+         */
+        public void setValue(int value) {
+            checkEntry();
+            values[pos] = value;
+        }
+
+        private void checkEntry() {
+            checkState(pos >= 0 && pos < keys.length, "no current entry");
+        }
+    }
+
+    /**
+     * Creates a new, empty map.
+     *
+     * @return a new map
+     */
+    public static <K> ObjectIntMap<K> create() {
+        return new ObjectIntMap<K>(HashCommon.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a new, empty map that holds {@code expectedSize} entries without
+     * growing.
+     *
+     * @param expectedSize
+     *            - the number of entries expected
+     * @return a new map
+     */
+    public static <K> ObjectIntMap<K> createWithExpectedSize(int expectedSize) {
+        return new ObjectIntMap<K>(expectedSize);
+    }
+
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    private ObjectIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = thresholdFor(capacity);
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if there are no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // the key's slot, or the empty slot it would go in
+    private int find(Object key) {
+        int pos = mix(key.hashCode()) & mask;
+        Object current;
+        while ((current = keys[pos]) != null && !current.equals(key)) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    /**
+     * @param key
+     *            - the key to look for
+     * @return {@code true} if the key is in the map
+     */
+    public boolean containsKey(Object key) {
+        return key != null && keys[find(key)] != null;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @param defaultValue
+     *            - the value to return if the key isn't in the map
+     * @return the key's value, or {@code defaultValue}
+     */
+    public int get(Object key, int defaultValue) {
+        if (key == null) {
+            return defaultValue;
+        }
+        int pos = find(key);
+        return keys[pos] != null ? values[pos] : defaultValue;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key
+     *            - the key to look for
+     * @return the key's value, if it is in the map
+     */
+    public OptionalInt get(Object key) {
+        if (key == null) {
+            return OptionalInt.absent();
+        }
+        int pos = find(key);
+        return keys[pos] != null ? OptionalInt.of(values[pos]) : OptionalInt
+                .absent();
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key
+     *            - the key
+     * @param value
+     *            - the value
+     * @return {@code true} if the key wasn't in the map before
+     */
+    public boolean put(K key, int value) {
+        int pos = find(checkNotNull(key));
+        if (keys[pos] != null) {
+            values[pos] = value;
+            return false;
+        }
+        insertAt(pos, key, value);
+        return true;
+    }
+
+    /**
+     * Add to the value for a key, starting from {@code 0} if the key isn't in
+     * the map.
+     *
+     * @param key
+     *            - the key
+     * @param increment
+     *            - the amount to add
+     * @return the new value
+     */
+    public int addTo(K key, int increment) {
+        int pos = find(checkNotNull(key));
+        if (keys[pos] != null) {
+            return values[pos] += increment;
+        }
+        insertAt(pos, key, increment);
+        return increment;
+    }
+
+    /**
+     * Get the value for a key, computing and storing it if the key isn't in
+     * the map. If the function adds the key itself, the computed value
+     * replaces the one it added.
+     *
+     * @param key
+     *            - the key
+     * @param function
+     *            - computes the value from the key
+     * @return the key's value
+     */
+    public int computeIfAbsent(K key, ToIntFunction<? super K> function) {
+        checkNotNull(function);
+        int pos = find(checkNotNull(key));
+        if (keys[pos] != null) {
+            return values[pos];
+        }
+        int value = function.applyAsInt(key);
+        // the function may have changed the map, even added the key
+        pos = find(key);
+        if (keys[pos] != null) {
+            values[pos] = value;
+        } else {
+            insertAt(pos, key, value);
+        }
+        return value;
+    }
+
+    private void insertAt(int pos, K key, int value) {
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > threshold) {
+            rehash(grow(keys.length));
+        }
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int pos = find(key);
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key
+     *            - the key to remove
+     * @return {@code true} if the key was in the map
+     */
+    public boolean remove(Object key) {
+        if (key == null) {
+            return false;
+        }
+        int pos = find(key);
+        if (keys[pos] == null) {
+            return false;
+        }
+        removeAt(pos);
+        return true;
+    }
+
+    private void removeAt(int pos) {
+        size--;
+        // shift later entries back so probes don't stop early
+        int last;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            Object current;
+            while (true) {
+                if ((current = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                if (canMoveBack(last, pos, mix(current.hashCode()) & mask)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * @return a cursor before the first entry
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ObjectIntMap)) {
+            return false;
+        }
+        ObjectIntMap<?> that = (ObjectIntMap<?>) obj;
+        if (size != that.size) {
+            return false;
+        }
+        for (Cursor c = cursor(); c.advance();) {
+            K key = c.key();
+            if (!that.containsKey(key) || that.get(key, 0) != c.value()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Cursor c = cursor(); c.advance();) {
+            hash += c.key().hashCode() ^ c.value();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Cursor c = cursor(); c.advance();) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(c.key()).append('=').append(c.value());
+        }
+        return builder.append('}').toString();
+    }
+}
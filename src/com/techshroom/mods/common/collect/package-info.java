@@ -0,0 +1,12 @@
+/**
+ * Collections of primitives that don't box, for the
+ * {@linkplain com.techshroom.mods.common.java8.function primitive functions}.
+ * 
+ * <p>
+ * The maps use open addressing with linear probing, and none of these
+ * classes are thread-safe.
+ * </p>
+ * 
+ * @author Kenzie Togami
+ */
+package com.techshroom.mods.common.collect;
@@ -0,0 +1,34 @@
+package com.techshroom.mods.common.java8.function;
+
+import com.google.common.annotations.GwtCompatible;
+
+/**
+ * A {@link FloatUnaryOperator} that can apply itself to a whole array at once,
+ * without a call per element. Use
+ * {@link FloatOperators#applyAll(FloatUnaryOperator, float[], float[], int, int)
+ * FloatOperators.applyAll} to apply any operator, bulk or not.
+ *
+ * @author Kenzie Togami
+ */
+@GwtCompatible
+public interface BulkFloatUnaryOperator extends FloatUnaryOperator {
+    /**
+     * Sets {@code dst[dstOff + i]} to {@code applyAsFloat(src[srcOff + i])}
+     * for each {@code i} from {@code 0} to {@code len - 1}. The ranges may be
+     * the same range, but must not otherwise overlap.
+     *
+     * @param src
+     *            - the inputs
+     * @param srcOff
+     *            - the index of the first input
+     * @param dst
+     *            - where to put the results
+     * @param dstOff
+     *            - the index of the first result
+     * @param len
+     *            - the number of elements
+     * @throws IndexOutOfBoundsException
+     *             if either range is outside its array
+     */
+    void applyAll(float[] src, int srcOff, float[] dst, int dstOff, int len);
+}
@@ -0,0 +1,34 @@
+package com.techshroom.mods.common.java8.function;
+
+import com.google.common.annotations.GwtCompatible;
+
+/**
+ * A {@link IntUnaryOperator} that can apply itself to a whole array at once,
+ * without a call per element. Use
+ * {@link IntOperators#applyAll(IntUnaryOperator, int[], int[], int, int)
+ * IntOperators.applyAll} to apply any operator, bulk or not.
+ *
+ * @author Kenzie Togami
+ */
+@GwtCompatible
+public interface BulkIntUnaryOperator extends IntUnaryOperator {
+    /**
+     * Sets {@code dst[dstOff + i]} to {@code applyAsInt(src[srcOff + i])}
+     * for each {@code i} from {@code 0} to {@code len - 1}. The ranges may be
+     * the same range, but must not otherwise overlap.
+     *
+     * @param src
+     *            - the inputs
+     * @param srcOff
+     *            - the index of the first input
+     * @param dst
+     *            - where to put the results
+     * @param dstOff
+     *            - the index of the first result
+     * @param len
+     *            - the number of elements
+     * @throws IndexOutOfBoundsException
+     *             if either range is outside its array
+     */
+    void applyAll(int[] src, int srcOff, int[] dst, int dstOff, int len);
+}
@@ -0,0 +1,181 @@
+package com.techshroom.mods.common.java8.function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+import com.google.common.cache.CacheStats;
+import com.techshroom.mods.common.collect.ObjectIntMap;
+
+/**
+ * A bounded cache of {@code int} values, split into segments that each have
+ * their own lock. Each segment evicts with the CLOCK algorithm: entries get a
+ * reference bit when they are hit, and the clock hand clears bits until it
+ * finds an entry without one. Values are computed outside the lock.
+ *
+ * @author Kenzie Togami
+ * @param <K>
+ *            - the key type
+ */
+final class ClockCache<K> {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private static final class Segment<K> {
+        // key to slot
+        private final ObjectIntMap<K> slots;
+        private final Object[] keys;
+        private final int[] values;
+        private final boolean[] referenced;
+        private int used;
+        private int hand;
+
+        private long hits;
+        private long misses;
+        private long loads;
+        private long loadExceptions;
+        private long loadTime;
+        private long evictions;
+
+        Segment(int capacity) {
+            slots = ObjectIntMap.createWithExpectedSize(capacity);
+            keys = new Object[capacity];
+            values = new int[capacity];
+            referenced = new boolean[capacity];
+        }
+
+        // must hold the lock
+        void put(K key, int value) {
+            int slot;
+            if (used < keys.length) {
+                slot = used++;
+            } else {
+                slot = evict();
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            // new entries have to be hit once to survive the hand
+            referenced[slot] = false;
+            slots.put(key, slot);
+        }
+
+        private int evict() {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % keys.length;
+            }
+            int slot = hand;
+            hand = (hand + 1) % keys.length;
+            slots.remove(keys[slot]);
+            evictions++;
+            return slot;
+        }
+
+        // must hold the lock
+        void clear() {
+            slots.clear();
+            Arrays.fill(keys, null);
+            used = 0;
+            hand = 0;
+        }
+    }
+
+    private final Segment<K>[] segments;
+    private final int segmentMask;
+
+    ClockCache(int maxSize) {
+        checkArgument(maxSize > 0, "maxSize must be positive: %s", maxSize);
+        int wanted = Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE);
+        int count = Integer.highestOneBit(Math.max(1, wanted));
+        @SuppressWarnings("unchecked")
+        Segment<K>[] segments = (Segment<K>[]) new Segment<?>[count];
+        // spread the remainder, so the cache holds exactly maxSize entries
+        int segmentSize = maxSize / count;
+        int remainder = maxSize % count;
+        for (int i = 0; i < count; i++) {
+            segments[i] =
+                    new Segment<K>(i < remainder ? segmentSize + 1
+                            : segmentSize);
+        }
+        this.segments = segments;
+        this.segmentMask = count - 1;
+    }
+
+    private Segment<K> segmentFor(Object key) {
+        // the high bits, the segment's map uses the low ones
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[(h >>> 24) & segmentMask];
+    }
+
+    int get(K key, ToIntFunction<? super K> loader) {
+        Segment<K> segment = segmentFor(checkNotNull(key));
+        synchronized (segment) {
+            int slot = segment.slots.get(key, -1);
+            if (slot >= 0) {
+                segment.referenced[slot] = true;
+                segment.hits++;
+                return segment.values[slot];
+            }
+            segment.misses++;
+        }
+        long start = System.nanoTime();
+        int value;
+        try {
+            value = loader.applyAsInt(key);
+        } catch (RuntimeException e) {
+            synchronized (segment) {
+                segment.loadExceptions++;
+                segment.loadTime += System.nanoTime() - start;
+            }
+            throw e;
+        }
+        long time = System.nanoTime() - start;
+        synchronized (segment) {
+            segment.loads++;
+            segment.loadTime += time;
+            int slot = segment.slots.get(key, -1);
+            if (slot >= 0) {
+                // another thread loaded it first, keep one answer
+                return segment.values[slot];
+            }
+            segment.put(key, value);
+        }
+        return value;
+    }
+
+    CacheStats stats() {
+        long hits = 0, misses = 0, loads = 0, loadExceptions = 0;
+        long loadTime = 0, evictions = 0;
+        for (Segment<K> segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+                misses += segment.misses;
+                loads += segment.loads;
+                loadExceptions += segment.loadExceptions;
+                loadTime += segment.loadTime;
+                evictions += segment.evictions;
+            }
+        }
+        return new CacheStats(hits, misses, loads, loadExceptions, loadTime,
+                evictions);
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment<K> segment : segments) {
+            synchronized (segment) {
+                size += segment.used;
+            }
+        }
+        return size;
+    }
+
+    void invalidateAll() {
+        for (Segment<K> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+}
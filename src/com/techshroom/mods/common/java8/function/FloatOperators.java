@@ -20,12 +20,18 @@ import static com.google.common.base.Preconditions.*;
 import static com.techshroom.mods.common.ExtendedPreconditions.checkMultiNotNull;
 
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
 import com.techshroom.mods.common.java8.supplier.FloatSupplier;
 
 /**
@@ -48,6 +54,102 @@ public final class FloatOperators {
     private FloatOperators() {
     }
 
+    /**
+     * Applies an operator to a range of an array, putting the results in the
+     * same range of another array, or the same array. Operators from this
+     * class do this without a call per element.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param dst
+     *            - where to put the results
+     * @param off
+     *            - the index of the first element
+     * @param len
+     *            - the number of elements
+     * @see BulkFloatUnaryOperator#applyAll(float[], int, float[], int, int)
+     */
+    public static void applyAll(FloatUnaryOperator op, float[] src, float[] dst,
+            int off, int len) {
+        applyAll(op, src, off, dst, off, len);
+    }
+
+    /**
+     * Applies an operator to a range of an array, putting the results in a
+     * range of another array. The ranges may be the same range, but must not
+     * otherwise overlap.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param srcOff
+     *            - the index of the first input
+     * @param dst
+     *            - where to put the results
+     * @param dstOff
+     *            - the index of the first result
+     * @param len
+     *            - the number of elements
+     * @see BulkFloatUnaryOperator#applyAll(float[], int, float[], int, int)
+     */
+    public static void applyAll(FloatUnaryOperator op, float[] src, int srcOff,
+            float[] dst, int dstOff, int len) {
+        checkNotNull(op);
+        checkRange(src, srcOff, dst, dstOff, len);
+        if (op instanceof BulkFloatUnaryOperator) {
+            ((BulkFloatUnaryOperator) op).applyAll(src, srcOff, dst, dstOff,
+                                                   len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            dst[dstOff + i] = op.applyAsFloat(src[srcOff + i]);
+        }
+    }
+
+    /**
+     * Applies an operator to the remaining elements of {@code src}, putting
+     * the results in {@code dst}. Both buffers' positions move past the
+     * elements. Array-backed buffers are handled like arrays.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param dst
+     *            - where to put the results
+     * @throws java.nio.BufferOverflowException
+     *             if {@code dst} has less room than {@code src} has elements
+     */
+    @GwtIncompatible("java.nio")
+    public static void applyAll(FloatUnaryOperator op, FloatBuffer src,
+            FloatBuffer dst) {
+        checkNotNull(op);
+        int len = src.remaining();
+        if (dst.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            applyAll(op, src.array(), src.arrayOffset() + src.position(),
+                     dst.array(), dst.arrayOffset() + dst.position(), len);
+            src.position(src.position() + len);
+            dst.position(dst.position() + len);
+            return;
+        }
+        while (src.hasRemaining()) {
+            dst.put(op.applyAsFloat(src.get()));
+        }
+    }
+
+    private static void checkRange(float[] src, int srcOff, float[] dst,
+            int dstOff, int len) {
+        checkArgument(len >= 0, "len cannot be negative: %s", len);
+        checkPositionIndexes(srcOff, srcOff + len, src.length);
+        checkPositionIndexes(dstOff, dstOff + len, dst.length);
+    }
+
     /**
      * Returns the identity function.
      * 
@@ -58,9 +160,17 @@ public final class FloatOperators {
     }
 
     // enum singleton pattern
-    private enum IdentityOperator implements FloatUnaryOperator {
+    private enum IdentityOperator implements BulkFloatUnaryOperator {
         INSTANCE;
 
+        @Override
+        public void applyAll(float[] src, int srcOff, float[] dst, int dstOff,
+                int len) {
+            if (src != dst || srcOff != dstOff) {
+                System.arraycopy(src, srcOff, dst, dstOff, len);
+            }
+        }
+
         @Override
         public float applyAsFloat(float input) {
             return input;
@@ -190,12 +300,88 @@ public final class FloatOperators {
         private static final long serialVersionUID = 0;
     }
 
+    /**
+     * Returns a function that remembers the results of {@code function} in a
+     * cache of at most {@code maxSize} entries. Entries that haven't been hit
+     * recently are evicted first. The function is thread-safe; the wrapped
+     * function is called outside any lock, so it may be called more than once
+     * for the same input at the same time.
+     *
+     * @param function
+     *            - the function to memoize, which shouldn't have side effects
+     * @param maxSize
+     *            - the most results to remember
+     * @return the memoizing function, which doesn't accept {@code null}
+     */
+    public static <K> MemoizedToFloatFunction<K> memoize(
+            ToFloatFunction<? super K> function, int maxSize) {
+        return new MemoizingToFloatFunction<K>(function, maxSize);
+    }
+
+    private static final class MemoizingToFloatFunction<K> implements
+            MemoizedToFloatFunction<K> {
+        private final FloatBits<K> loader;
+        private final ClockCache<K> cache;
+
+        MemoizingToFloatFunction(ToFloatFunction<? super K> function,
+                int maxSize) {
+            this.loader = new FloatBits<K>(checkNotNull(function));
+            this.cache = new ClockCache<K>(maxSize);
+        }
+
+        @Override
+        public float applyAsFloat(K input) {
+            return Float.intBitsToFloat(cache.get(input, loader));
+        }
+
+        @Override
+        public CacheStats stats() {
+            return cache.stats();
+        }
+
+        @Override
+        public long size() {
+            return cache.size();
+        }
+
+        @Override
+        public void invalidateAll() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public String toString() {
+            return "memoize(" + loader.function + ")";
+        }
+    }
+
+    // the cache stores ints, so floats go in as their bits
+    private static final class FloatBits<K> implements ToIntFunction<K> {
+        private final ToFloatFunction<? super K> function;
+
+        FloatBits(ToFloatFunction<? super K> function) {
+            this.function = function;
+        }
+
+        @Override
+        public int applyAsInt(K input) {
+            return Float.floatToRawIntBits(function.applyAsFloat(input));
+        }
+    }
+
     /**
      * Returns the composition of two functions. For {@code f: A->B} and
      * {@code g: B->C}, composition is defined as the function h such that
      * {@code h(a) == g(f(a))} for each {@code a}. This may not hold true when
      * dealing with floats.
      *
+     * <p>
+     * The result is simplified: nested compositions are flattened, identities
+     * are dropped, and operators before a {@linkplain #constant constant} are
+     * dropped, since they can't change the result. Operators should therefore
+     * be free of side effects.
+     * </p>
+     *
      * @param ops
      *            - a series of {@link FloatUnaryOperator FloatUnaryOperators}.
      * @return the composition of operators
@@ -203,32 +389,59 @@ public final class FloatOperators {
      *      composition</a>
      */
     public static FloatUnaryOperator compose(FloatUnaryOperator... ops) {
-        return new FloatUnaryOperatorComposition(ops);
-    }
-
-    private static class FloatUnaryOperatorComposition implements
-            FloatUnaryOperator, Serializable {
-        private final FloatUnaryOperator[] ops;
-
-        public FloatUnaryOperatorComposition(FloatUnaryOperator[] operators) {
-            ops = checkMultiNotNull(operators);
+        List<FloatUnaryOperator> chain =
+                Lists.newArrayListWithCapacity(ops.length);
+        for (FloatUnaryOperator op : checkMultiNotNull(ops)) {
+            append(chain, op);
+        }
+        switch (chain.size()) {
+            case 0:
+                return identity();
+            case 1:
+                return chain.get(0);
+            case 2:
+                return new FloatUnaryOperatorComposition2(chain.get(0),
+                        chain.get(1));
+            case 3:
+                return new FloatUnaryOperatorComposition3(chain.get(0),
+                        chain.get(1), chain.get(2));
+            default:
+                return new FloatUnaryOperatorCompositionN(
+                        chain.toArray(new FloatUnaryOperator[chain.size()]));
         }
+    }
 
-        @Override
-        public float applyAsFloat(float a) {
-            float result = a;
-            for (FloatUnaryOperator operator : ops) {
-                result = operator.applyAsFloat(result);
+    // flattens compositions, drops identities, and drops everything before a
+    // constant since its input is ignored
+    private static void append(List<FloatUnaryOperator> chain,
+            FloatUnaryOperator op) {
+        if (op instanceof FloatUnaryOperatorComposition) {
+            for (FloatUnaryOperator inner : ((FloatUnaryOperatorComposition) op)
+                    .operators()) {
+                append(chain, inner);
             }
-            return result;
+        } else if (op != IdentityOperator.INSTANCE) {
+            if (op instanceof ConstantFloatUnaryOperator) {
+                chain.clear();
+            }
+            chain.add(op);
         }
+    }
+
+    /**
+     * Base of the compositions. Small ones keep their operators in fields, so
+     * the JIT can inline each call.
+     */
+    private abstract static class FloatUnaryOperatorComposition implements
+            BulkFloatUnaryOperator, Serializable {
+        abstract FloatUnaryOperator[] operators();
 
         @Override
         public boolean equals(Object obj) {
             if (obj instanceof FloatUnaryOperatorComposition) {
                 FloatUnaryOperatorComposition that =
                         (FloatUnaryOperatorComposition) obj;
-                return Arrays.equals(ops, that.ops);
+                return Arrays.equals(operators(), that.operators());
             }
             return false;
         }
@@ -236,7 +449,7 @@ public final class FloatOperators {
         @Override
         public int hashCode() {
             int hash = 0;
-            for (FloatUnaryOperator op : ops) {
+            for (FloatUnaryOperator op : operators()) {
                 hash ^= op.hashCode();
             }
             return hash;
@@ -246,7 +459,7 @@ public final class FloatOperators {
         public String toString() {
             StringBuilder builder = new StringBuilder();
             int stack = 0;
-            for (FloatUnaryOperator op : ops) {
+            for (FloatUnaryOperator op : operators()) {
                 stack++;
                 // first function no (
                 if (stack > 1)
@@ -263,6 +476,107 @@ public final class FloatOperators {
         private static final long serialVersionUID = 0;
     }
 
+    private static final class FloatUnaryOperatorComposition2 extends
+            FloatUnaryOperatorComposition {
+        private final FloatUnaryOperator first;
+        private final FloatUnaryOperator second;
+
+        FloatUnaryOperatorComposition2(FloatUnaryOperator first,
+                FloatUnaryOperator second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public float applyAsFloat(float a) {
+            return second.applyAsFloat(first.applyAsFloat(a));
+        }
+
+        @Override
+        public void applyAll(float[] src, int srcOff, float[] dst, int dstOff,
+                int len) {
+            // one pass per operator keeps each loop monomorphic
+            FloatOperators.applyAll(first, src, srcOff, dst, dstOff, len);
+            FloatOperators.applyAll(second, dst, dstOff, dst, dstOff, len);
+        }
+
+        @Override
+        FloatUnaryOperator[] operators() {
+            return new FloatUnaryOperator[] { first, second };
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    private static final class FloatUnaryOperatorComposition3 extends
+            FloatUnaryOperatorComposition {
+        private final FloatUnaryOperator first;
+        private final FloatUnaryOperator second;
+        private final FloatUnaryOperator third;
+
+        FloatUnaryOperatorComposition3(FloatUnaryOperator first,
+                FloatUnaryOperator second, FloatUnaryOperator third) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        @Override
+        public float applyAsFloat(float a) {
+            return third.applyAsFloat(second.applyAsFloat(first
+                    .applyAsFloat(a)));
+        }
+
+        @Override
+        public void applyAll(float[] src, int srcOff, float[] dst, int dstOff,
+                int len) {
+            FloatOperators.applyAll(first, src, srcOff, dst, dstOff, len);
+            FloatOperators.applyAll(second, dst, dstOff, dst, dstOff, len);
+            FloatOperators.applyAll(third, dst, dstOff, dst, dstOff, len);
+        }
+
+        @Override
+        FloatUnaryOperator[] operators() {
+            return new FloatUnaryOperator[] { first, second, third };
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    private static final class FloatUnaryOperatorCompositionN extends
+            FloatUnaryOperatorComposition {
+        private final FloatUnaryOperator[] ops;
+
+        FloatUnaryOperatorCompositionN(FloatUnaryOperator[] operators) {
+            ops = operators;
+        }
+
+        @Override
+        public float applyAsFloat(float a) {
+            float result = a;
+            for (FloatUnaryOperator operator : ops) {
+                result = operator.applyAsFloat(result);
+            }
+            return result;
+        }
+
+        @Override
+        public void applyAll(float[] src, int srcOff, float[] dst, int dstOff,
+                int len) {
+            FloatOperators.applyAll(ops[0], src, srcOff, dst, dstOff, len);
+            for (int i = 1; i < ops.length; i++) {
+                FloatOperators.applyAll(ops[i], dst, dstOff, dst, dstOff, len);
+            }
+        }
+
+        @Override
+        FloatUnaryOperator[] operators() {
+            return ops.clone();
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
     /**
      * Creates a function that returns {@code value} for any input.
      *
@@ -275,7 +589,7 @@ public final class FloatOperators {
     }
 
     private static class ConstantFloatUnaryOperator implements
-            FloatUnaryOperator, Serializable {
+            BulkFloatUnaryOperator, Serializable {
         private final int value;
 
         public ConstantFloatUnaryOperator(int value) {
@@ -287,6 +601,12 @@ public final class FloatOperators {
             return value;
         }
 
+        @Override
+        public void applyAll(float[] src, int srcOff, float[] dst, int dstOff,
+                int len) {
+            Arrays.fill(dst, dstOff, dstOff + len, value);
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (obj instanceof ConstantFloatUnaryOperator) {
@@ -20,12 +20,20 @@ import static com.google.common.base.Preconditions.*;
 import static com.techshroom.mods.common.ExtendedPreconditions.checkMultiNotNull;
 
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.collect.ObjectIntMap;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
 import com.techshroom.mods.common.java8.supplier.IntSupplier;
 
 /**
@@ -47,6 +55,101 @@ public final class IntOperators {
     private IntOperators() {
     }
 
+    /**
+     * Applies an operator to a range of an array, putting the results in the
+     * same range of another array, or the same array. Operators from this
+     * class do this without a call per element.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param dst
+     *            - where to put the results
+     * @param off
+     *            - the index of the first element
+     * @param len
+     *            - the number of elements
+     * @see BulkIntUnaryOperator#applyAll(int[], int, int[], int, int)
+     */
+    public static void applyAll(IntUnaryOperator op, int[] src, int[] dst,
+            int off, int len) {
+        applyAll(op, src, off, dst, off, len);
+    }
+
+    /**
+     * Applies an operator to a range of an array, putting the results in a
+     * range of another array. The ranges may be the same range, but must not
+     * otherwise overlap.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param srcOff
+     *            - the index of the first input
+     * @param dst
+     *            - where to put the results
+     * @param dstOff
+     *            - the index of the first result
+     * @param len
+     *            - the number of elements
+     * @see BulkIntUnaryOperator#applyAll(int[], int, int[], int, int)
+     */
+    public static void applyAll(IntUnaryOperator op, int[] src, int srcOff,
+            int[] dst, int dstOff, int len) {
+        checkNotNull(op);
+        checkRange(src, srcOff, dst, dstOff, len);
+        if (op instanceof BulkIntUnaryOperator) {
+            ((BulkIntUnaryOperator) op).applyAll(src, srcOff, dst, dstOff, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            dst[dstOff + i] = op.applyAsInt(src[srcOff + i]);
+        }
+    }
+
+    /**
+     * Applies an operator to the remaining elements of {@code src}, putting
+     * the results in {@code dst}. Both buffers' positions move past the
+     * elements. Array-backed buffers are handled like arrays.
+     *
+     * @param op
+     *            - the operator to apply
+     * @param src
+     *            - the inputs
+     * @param dst
+     *            - where to put the results
+     * @throws java.nio.BufferOverflowException
+     *             if {@code dst} has less room than {@code src} has elements
+     */
+    @GwtIncompatible("java.nio")
+    public static void applyAll(IntUnaryOperator op, IntBuffer src,
+            IntBuffer dst) {
+        checkNotNull(op);
+        int len = src.remaining();
+        if (dst.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            applyAll(op, src.array(), src.arrayOffset() + src.position(),
+                     dst.array(), dst.arrayOffset() + dst.position(), len);
+            src.position(src.position() + len);
+            dst.position(dst.position() + len);
+            return;
+        }
+        while (src.hasRemaining()) {
+            dst.put(op.applyAsInt(src.get()));
+        }
+    }
+
+    private static void checkRange(int[] src, int srcOff, int[] dst,
+            int dstOff, int len) {
+        checkArgument(len >= 0, "len cannot be negative: %s", len);
+        checkPositionIndexes(srcOff, srcOff + len, src.length);
+        checkPositionIndexes(dstOff, dstOff + len, dst.length);
+    }
+
     /**
      * Returns the identity function.
      * 
@@ -57,9 +160,17 @@ public final class IntOperators {
     }
 
     // enum singleton pattern
-    private enum IdentityOperator implements IntUnaryOperator {
+    private enum IdentityOperator implements BulkIntUnaryOperator {
         INSTANCE;
 
+        @Override
+        public void applyAll(int[] src, int srcOff, int[] dst, int dstOff,
+                int len) {
+            if (src != dst || srcOff != dstOff) {
+                System.arraycopy(src, srcOff, dst, dstOff, len);
+            }
+        }
+
         @Override
         public int applyAsInt(int input) {
             return input;
@@ -189,11 +300,186 @@ public final class IntOperators {
         private static final long serialVersionUID = 0;
     }
 
+    /**
+     * Returns a function which performs a map lookup without boxing. The
+     * returned function throws an {@link IllegalArgumentException} if given a
+     * key that does not exist in the map. See also
+     * {@link #forMap(ObjectIntMap, int)}, which returns a default value in this
+     * case.
+     * 
+     * @param map
+     *            - map to use
+     * @return f(x) = map.get(x)
+     */
+    public static <K> ToIntFunction<K> forMap(ObjectIntMap<K> map) {
+        return new ToIntFunctionForObjectIntMapNoDefault<K>(map);
+    }
+
+    private static class ToIntFunctionForObjectIntMapNoDefault<K> implements
+            ToIntFunction<K>, Serializable {
+        final ObjectIntMap<K> map;
+
+        ToIntFunctionForObjectIntMapNoDefault(ObjectIntMap<K> map) {
+            this.map = checkNotNull(map);
+        }
+
+        @Override
+        public int applyAsInt(K key) {
+            OptionalInt result = map.get(key);
+            checkArgument(result.isPresent(), "Key '%s' not present in map",
+                          key);
+            return result.get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof ToIntFunctionForObjectIntMapNoDefault) {
+                ToIntFunctionForObjectIntMapNoDefault<?> that =
+                        (ToIntFunctionForObjectIntMapNoDefault<?>) o;
+                return map.equals(that.map);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return map.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "forMap(" + map + ")";
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    /**
+     * Returns a function which performs a map lookup with a default value,
+     * without boxing. The function created by this method returns
+     * {@code defaultValue} for all inputs that do not belong to the map's key
+     * set. See also {@link #forMap(ObjectIntMap)}, which throws an exception in
+     * this case.
+     *
+     * @param map
+     *            source map that determines the function behavior
+     * @param defaultValue
+     *            the value to return for inputs that aren't map keys
+     * @return function that returns {@code map.get(a)} when {@code a} is a key,
+     *         or {@code defaultValue} otherwise
+     */
+    public static <K> ToIntFunction<K> forMap(ObjectIntMap<K> map,
+            int defaultValue) {
+        return new ToIntFunctionForObjectIntMapWithDefault<K>(map,
+                defaultValue);
+    }
+
+    private static class ToIntFunctionForObjectIntMapWithDefault<K>
+            implements ToIntFunction<K>, Serializable {
+        final ObjectIntMap<K> map;
+        final int defaultValue;
+
+        ToIntFunctionForObjectIntMapWithDefault(ObjectIntMap<K> map,
+                int defaultValue) {
+            this.map = checkNotNull(map);
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public int applyAsInt(K key) {
+            return map.get(key, defaultValue);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof ToIntFunctionForObjectIntMapWithDefault) {
+                ToIntFunctionForObjectIntMapWithDefault<?> that =
+                        (ToIntFunctionForObjectIntMapWithDefault<?>) o;
+                return map.equals(that.map)
+                        && defaultValue == that.defaultValue;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(map, defaultValue);
+        }
+
+        @Override
+        public String toString() {
+            return "forMap(" + map + ", defaultValue=" + defaultValue + ")";
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    /**
+     * Returns a function that remembers the results of {@code function} in a
+     * cache of at most {@code maxSize} entries. Entries that haven't been hit
+     * recently are evicted first. The function is thread-safe; the wrapped
+     * function is called outside any lock, so it may be called more than once
+     * for the same input at the same time.
+     *
+     * @param function
+     *            - the function to memoize, which shouldn't have side effects
+     * @param maxSize
+     *            - the most results to remember
+     * @return the memoizing function, which doesn't accept {@code null}
+     */
+    public static <K> MemoizedToIntFunction<K> memoize(
+            ToIntFunction<? super K> function, int maxSize) {
+        return new MemoizingToIntFunction<K>(function, maxSize);
+    }
+
+    private static final class MemoizingToIntFunction<K> implements
+            MemoizedToIntFunction<K> {
+        private final ToIntFunction<? super K> function;
+        private final ClockCache<K> cache;
+
+        MemoizingToIntFunction(ToIntFunction<? super K> function, int maxSize) {
+            this.function = checkNotNull(function);
+            this.cache = new ClockCache<K>(maxSize);
+        }
+
+        @Override
+        public int applyAsInt(K input) {
+            return cache.get(input, function);
+        }
+
+        @Override
+        public CacheStats stats() {
+            return cache.stats();
+        }
+
+        @Override
+        public long size() {
+            return cache.size();
+        }
+
+        @Override
+        public void invalidateAll() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public String toString() {
+            return "memoize(" + function + ")";
+        }
+    }
+
     /**
      * Returns the composition of two functions. For {@code f: A->B} and
      * {@code g: B->C}, composition is defined as the function h such that
      * {@code h(a) == g(f(a))} for each {@code a}.
      *
+     * <p>
+     * The result is simplified: nested compositions are flattened, identities
+     * are dropped, and operators before a {@linkplain #constant constant} are
+     * dropped, since they can't change the result. Operators should therefore
+     * be free of side effects.
+     * </p>
+     *
      * @param ops
      *            - a series of {@link IntUnaryOperator IntUnaryOperators}.
      * @return the composition of operators
@@ -201,32 +487,59 @@ public final class IntOperators {
      *      composition</a>
      */
     public static IntUnaryOperator compose(IntUnaryOperator... ops) {
-        return new IntUnaryOperatorComposition(ops);
-    }
-
-    private static class IntUnaryOperatorComposition implements
-            IntUnaryOperator, Serializable {
-        private final IntUnaryOperator[] ops;
-
-        public IntUnaryOperatorComposition(IntUnaryOperator[] operators) {
-            ops = checkMultiNotNull(operators);
+        List<IntUnaryOperator> chain =
+                Lists.newArrayListWithCapacity(ops.length);
+        for (IntUnaryOperator op : checkMultiNotNull(ops)) {
+            append(chain, op);
         }
+        switch (chain.size()) {
+            case 0:
+                return identity();
+            case 1:
+                return chain.get(0);
+            case 2:
+                return new IntUnaryOperatorComposition2(chain.get(0),
+                        chain.get(1));
+            case 3:
+                return new IntUnaryOperatorComposition3(chain.get(0),
+                        chain.get(1), chain.get(2));
+            default:
+                return new IntUnaryOperatorCompositionN(
+                        chain.toArray(new IntUnaryOperator[chain.size()]));
+        }
+    }
 
-        @Override
-        public int applyAsInt(int a) {
-            int result = a;
-            for (IntUnaryOperator operator : ops) {
-                result = operator.applyAsInt(result);
+    // flattens compositions, drops identities, and drops everything before a
+    // constant since its input is ignored
+    private static void append(List<IntUnaryOperator> chain,
+            IntUnaryOperator op) {
+        if (op instanceof IntUnaryOperatorComposition) {
+            for (IntUnaryOperator inner : ((IntUnaryOperatorComposition) op)
+                    .operators()) {
+                append(chain, inner);
             }
-            return result;
+        } else if (op != IdentityOperator.INSTANCE) {
+            if (op instanceof ConstantIntUnaryOperator) {
+                chain.clear();
+            }
+            chain.add(op);
         }
+    }
+
+    /**
+     * Base of the compositions. Small ones keep their operators in fields, so
+     * the JIT can inline each call.
+     */
+    private abstract static class IntUnaryOperatorComposition implements
+            BulkIntUnaryOperator, Serializable {
+        abstract IntUnaryOperator[] operators();
 
         @Override
         public boolean equals(Object obj) {
             if (obj instanceof IntUnaryOperatorComposition) {
                 IntUnaryOperatorComposition that =
                         (IntUnaryOperatorComposition) obj;
-                return Arrays.equals(ops, that.ops);
+                return Arrays.equals(operators(), that.operators());
             }
             return false;
         }
@@ -234,7 +547,7 @@ public final class IntOperators {
         @Override
         public int hashCode() {
             int hash = 0;
-            for (IntUnaryOperator op : ops) {
+            for (IntUnaryOperator op : operators()) {
                 hash ^= op.hashCode();
             }
             return hash;
@@ -244,7 +557,7 @@ public final class IntOperators {
         public String toString() {
             StringBuilder builder = new StringBuilder();
             int stack = 0;
-            for (IntUnaryOperator op : ops) {
+            for (IntUnaryOperator op : operators()) {
                 stack++;
                 // first function no (
                 if (stack > 1)
@@ -261,6 +574,106 @@ public final class IntOperators {
         private static final long serialVersionUID = 0;
     }
 
+    private static final class IntUnaryOperatorComposition2 extends
+            IntUnaryOperatorComposition {
+        private final IntUnaryOperator first;
+        private final IntUnaryOperator second;
+
+        IntUnaryOperatorComposition2(IntUnaryOperator first,
+                IntUnaryOperator second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int applyAsInt(int a) {
+            return second.applyAsInt(first.applyAsInt(a));
+        }
+
+        @Override
+        public void applyAll(int[] src, int srcOff, int[] dst, int dstOff,
+                int len) {
+            // one pass per operator keeps each loop monomorphic
+            IntOperators.applyAll(first, src, srcOff, dst, dstOff, len);
+            IntOperators.applyAll(second, dst, dstOff, dst, dstOff, len);
+        }
+
+        @Override
+        IntUnaryOperator[] operators() {
+            return new IntUnaryOperator[] { first, second };
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    private static final class IntUnaryOperatorComposition3 extends
+            IntUnaryOperatorComposition {
+        private final IntUnaryOperator first;
+        private final IntUnaryOperator second;
+        private final IntUnaryOperator third;
+
+        IntUnaryOperatorComposition3(IntUnaryOperator first,
+                IntUnaryOperator second, IntUnaryOperator third) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        @Override
+        public int applyAsInt(int a) {
+            return third.applyAsInt(second.applyAsInt(first.applyAsInt(a)));
+        }
+
+        @Override
+        public void applyAll(int[] src, int srcOff, int[] dst, int dstOff,
+                int len) {
+            IntOperators.applyAll(first, src, srcOff, dst, dstOff, len);
+            IntOperators.applyAll(second, dst, dstOff, dst, dstOff, len);
+            IntOperators.applyAll(third, dst, dstOff, dst, dstOff, len);
+        }
+
+        @Override
+        IntUnaryOperator[] operators() {
+            return new IntUnaryOperator[] { first, second, third };
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
+    private static final class IntUnaryOperatorCompositionN extends
+            IntUnaryOperatorComposition {
+        private final IntUnaryOperator[] ops;
+
+        IntUnaryOperatorCompositionN(IntUnaryOperator[] operators) {
+            ops = operators;
+        }
+
+        @Override
+        public int applyAsInt(int a) {
+            int result = a;
+            for (IntUnaryOperator operator : ops) {
+                result = operator.applyAsInt(result);
+            }
+            return result;
+        }
+
+        @Override
+        public void applyAll(int[] src, int srcOff, int[] dst, int dstOff,
+                int len) {
+            IntOperators.applyAll(ops[0], src, srcOff, dst, dstOff, len);
+            for (int i = 1; i < ops.length; i++) {
+                IntOperators.applyAll(ops[i], dst, dstOff, dst, dstOff, len);
+            }
+        }
+
+        @Override
+        IntUnaryOperator[] operators() {
+            return ops.clone();
+        }
+
+        private static final long serialVersionUID = 0;
+    }
+
     /**
      * Creates a function that returns {@code value} for any input.
      *
@@ -272,8 +685,8 @@ public final class IntOperators {
         return new ConstantIntUnaryOperator(value);
     }
 
-    private static class ConstantIntUnaryOperator implements IntUnaryOperator,
-            Serializable {
+    private static class ConstantIntUnaryOperator implements
+            BulkIntUnaryOperator, Serializable {
         private final int value;
 
         public ConstantIntUnaryOperator(int value) {
@@ -285,6 +698,12 @@ public final class IntOperators {
             return value;
         }
 
+        @Override
+        public void applyAll(int[] src, int srcOff, int[] dst, int dstOff,
+                int len) {
+            Arrays.fill(dst, dstOff, dstOff + len, value);
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (obj instanceof ConstantIntUnaryOperator) {
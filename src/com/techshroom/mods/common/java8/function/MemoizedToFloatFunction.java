@@ -0,0 +1,32 @@
+package com.techshroom.mods.common.java8.function;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * A {@link ToFloatFunction} that remembers its results in a bounded cache.
+ * Create one with {@link FloatOperators#memoize(ToFloatFunction, int)}.
+ *
+ * @author Kenzie Togami
+ * @param <T>
+ *            - input type
+ */
+public interface MemoizedToFloatFunction<T> extends ToFloatFunction<T> {
+    /**
+     * Returns the cache's statistics. Each miss is a call to the wrapped
+     * function.
+     *
+     * @return a snapshot of the statistics
+     */
+    CacheStats stats();
+
+    /**
+     * @return the number of cached results
+     */
+    long size();
+
+    /**
+     * Forget every cached result, for when the wrapped function's answers
+     * change.
+     */
+    void invalidateAll();
+}
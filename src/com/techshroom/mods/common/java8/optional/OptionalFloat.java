@@ -83,7 +83,9 @@ public abstract class OptionalFloat implements Serializable {
 
         @Override
         public OptionalFloat transform(FloatUnaryOperator function) {
-            return OptionalFloat.of(function.applyAsFloat(value));
+            float result = function.applyAsFloat(value);
+            return Float.compare(result, value) == 0 ? this : OptionalFloat
+                    .of(result);
         }
 
         @Override
@@ -169,14 +171,39 @@ public abstract class OptionalFloat implements Serializable {
         return Absent.INSTANCE;
     }
 
+    // multiples of 0.5 from 0 to 64 are shared, they cover most hardness,
+    // resistance and light values
+    private static final class Cache {
+        static final int STEPS_PER_UNIT = 2;
+        static final int NEGATIVE_ZERO_BITS = Float
+                .floatToRawIntBits(-0.0f);
+        static final OptionalFloat[] VALUES = new OptionalFloat[64
+                * STEPS_PER_UNIT + 1];
+        static {
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new Present((float) i / STEPS_PER_UNIT);
+            }
+        }
+    }
+
     /**
      * Returns an {@code OptionalFloat} instance containing the given float.
+     * Multiples of 0.5 from 0 to 64 are cached, so don't rely on the identity
+     * of the result.
      * 
      * @param value
      *            - value to wrap
      * @return an OptionalFloat containing the given value
      */
     public static OptionalFloat of(float value) {
+        float steps = value * Cache.STEPS_PER_UNIT;
+        int index = (int) steps;
+        // -0.0 isn't equal to 0.0, so it isn't cached
+        if (index == steps && index >= 0 && index < Cache.VALUES.length
+                && Float.floatToRawIntBits(value)
+                    != Cache.NEGATIVE_ZERO_BITS) {
+            return Cache.VALUES[index];
+        }
         return new Present(value);
     }
 
@@ -83,7 +83,8 @@ public abstract class OptionalInt implements Serializable {
 
         @Override
         public OptionalInt transform(IntUnaryOperator function) {
-            return OptionalInt.of(function.applyAsInt(value));
+            int result = function.applyAsInt(value);
+            return result == value ? this : OptionalInt.of(result);
         }
 
         @Override
@@ -169,14 +170,31 @@ public abstract class OptionalInt implements Serializable {
         return Absent.INSTANCE;
     }
 
+    // small values are shared, like Integer.valueOf
+    private static final class Cache {
+        static final int LOW = -128;
+        static final int HIGH = 1023;
+        static final OptionalInt[] VALUES = new OptionalInt[HIGH - LOW + 1];
+        static {
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new Present(i + LOW);
+            }
+        }
+    }
+
     /**
      * Returns an {@code OptionalInt} instance containing the given integer.
+     * Values from -128 to 1023 are cached, so don't rely on the identity of
+     * the result.
      * 
      * @param value
      *            - value to wrap
      * @return an OptionalInt containing the given value
      */
     public static OptionalInt of(int value) {
+        if (value >= Cache.LOW && value <= Cache.HIGH) {
+            return Cache.VALUES[value - Cache.LOW];
+        }
         return new Present(value);
     }
 
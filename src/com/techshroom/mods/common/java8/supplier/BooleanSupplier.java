@@ -0,0 +1,21 @@
+package com.techshroom.mods.common.java8.supplier;
+
+import com.google.common.annotations.GwtCompatible;
+
+/**
+ * A class that can supply booleans. Semantically, this could be a generator,
+ * closure, or something else entirely. No guarantees are implied by this
+ * interface.
+ *
+ * @author Kenzie Togami
+ */
+@GwtCompatible
+public interface BooleanSupplier {
+    /**
+     * Retrieves a boolean. The returned boolean may or may not be different,
+     * depending on the implementation.
+     *
+     * @return a boolean
+     */
+    boolean get();
+}
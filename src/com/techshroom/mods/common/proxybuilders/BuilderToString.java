@@ -0,0 +1,71 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.lang.reflect.Field;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.techshroom.mods.common.ClassCache;
+import com.techshroom.mods.common.java8.optional.OptionalFloat;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * Shared toString for builders. Lists every declared field of the builder's
+ * class, leaving out absent optionals. The fields of each class are looked up
+ * and made accessible once.
+ * 
+ * @author Kenzie Togami
+ */
+final class BuilderToString {
+    private static final ClassCache<Field[]> FIELDS = new ClassCache<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            Field[] fields = type.getDeclaredFields();
+            Field.setAccessible(fields, true);
+            return fields;
+        }
+    };
+
+    /**
+     * Describe the given builder.
+     * 
+     * @param builder
+     *            - the builder to describe
+     * @return the description
+     */
+    static String toString(Object builder) {
+        ToStringHelper toString = Objects.toStringHelper(builder);
+        for (Field field : FIELDS.get(builder.getClass())) {
+            Object value = null;
+            try {
+                value = field.get(builder);
+            } catch (IllegalAccessException e) {
+                Throwables.propagate(e);
+            }
+            if (value instanceof Optional) {
+                Optional<?> optional = (Optional<?>) value;
+                if (optional.isPresent()) {
+                    toString.add(field.getName(), optional.get());
+                }
+            } else if (value instanceof OptionalInt) {
+                OptionalInt optional = (OptionalInt) value;
+                if (optional.isPresent()) {
+                    toString.add(field.getName(), optional.get());
+                }
+            } else if (value instanceof OptionalFloat) {
+                OptionalFloat optional = (OptionalFloat) value;
+                if (optional.isPresent()) {
+                    toString.add(field.getName(), optional.get());
+                }
+            } else {
+                toString.add(field.getName(), value);
+            }
+        }
+        return toString.toString();
+    }
+
+    private BuilderToString() {
+        throw new AssertionError();
+    }
+}
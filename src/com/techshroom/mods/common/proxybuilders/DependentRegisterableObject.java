@@ -0,0 +1,32 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.Collection;
+
+/**
+ * A RegisterableObject that must be created and registered after some other
+ * objects. Within a state, the proxy orders objects so that every dependency
+ * runs first, and may run independent objects concurrently if parallel create
+ * is enabled.
+ * 
+ * @author Kenzie Togami
+ *
+ * @param <Type>
+ *            - stored type
+ */
+public interface DependentRegisterableObject<Type> extends
+        RegisterableObject<Type> {
+    /**
+     * The objects this object depends on. Dependencies with an earlier
+     * {@link #registerState()} have already run and are ignored. Dependencies
+     * with a later state are not allowed.
+     * 
+     * <p>
+     * Dependencies with the same state may be registered while that state is
+     * running; this object waits until they have run. If a dependency fails,
+     * or is never registered for the state, this object is skipped.
+     * </p>
+     * 
+     * @return the objects to run before this one
+     */
+    Collection<? extends RegisterableObject<?>> dependsOn();
+}
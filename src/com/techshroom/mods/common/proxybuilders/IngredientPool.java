@@ -0,0 +1,144 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Shares equal input stacks between registered ore recipes.
+ * {@link ShapedOreRecipe} and {@link ShapelessOreRecipe} copy every stack
+ * they're given, so once a recipe is kept its copies are swapped for a shared
+ * stack. Entries are weakly held, and go away once no recipe uses them.
+ * 
+ * <p>
+ * Ore dictionary inputs are left alone, Forge already gives every recipe the
+ * dictionary's own list for a name. Only stacks without NBT data are shared,
+ * and recipe inputs must not be modified once interned.
+ * </p>
+ * 
+ * @author Kenzie Togami
+ */
+public final class IngredientPool {
+    // rough shallow size of a stack, for the saved memory estimate
+    private static final int ITEM_STACK_BYTES = 48;
+
+    private static final class StackKey {
+        private final Item item;
+        private final int meta;
+        private final int size;
+
+        private StackKey(Item item, int meta, int size) {
+            this.item = item;
+            this.meta = meta;
+            this.size = size;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(item) * 31 + meta) * 31 + size;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof StackKey)) {
+                return false;
+            }
+            StackKey other = (StackKey) obj;
+            return item == other.item && meta == other.meta
+                    && size == other.size;
+        }
+    }
+
+    private static final ConcurrentMap<StackKey, ItemStack> STACKS =
+            new MapMaker().weakValues().makeMap();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong SAVED_BYTES = new AtomicLong();
+
+    /**
+     * Intern a recipe input stack. Stacks with NBT data are returned as-is.
+     * 
+     * @param stack
+     *            - the stack
+     * @return an equal shared stack, or {@code stack}
+     */
+    public static ItemStack intern(ItemStack stack) {
+        if (stack.hasTagCompound()) {
+            return stack;
+        }
+        ItemStack shared =
+                STACKS.putIfAbsent(new StackKey(stack.getItem(), stack
+                        .getItemDamage(), stack.stackSize), stack);
+        if (shared == null) {
+            return stack;
+        }
+        HITS.incrementAndGet();
+        SAVED_BYTES.addAndGet(ITEM_STACK_BYTES);
+        return shared;
+    }
+
+    /**
+     * Replace the input stacks of an ore recipe with shared ones. Other
+     * recipes are left alone.
+     * 
+     * @param recipe
+     *            - a recipe that is being kept
+     */
+    public static void internInputs(IRecipe recipe) {
+        if (recipe instanceof ShapedOreRecipe) {
+            Object[] input = ((ShapedOreRecipe) recipe).getInput();
+            for (int i = 0; i < input.length; i++) {
+                input[i] = internInput(input[i]);
+            }
+        } else if (recipe instanceof ShapelessOreRecipe) {
+            List<Object> input = ((ShapelessOreRecipe) recipe).getInput();
+            for (ListIterator<Object> it = input.listIterator(); it
+                    .hasNext();) {
+                it.set(internInput(it.next()));
+            }
+        }
+    }
+
+    private static Object internInput(Object input) {
+        if (input instanceof ItemStack) {
+            return intern((ItemStack) input);
+        }
+        return input;
+    }
+
+    /**
+     * @return the number of times an existing stack was reused
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return an estimate of the bytes saved by reusing stacks
+     */
+    public static long getSavedBytes() {
+        return SAVED_BYTES.get();
+    }
+
+    /**
+     * @return a summary of the pool's savings
+     */
+    public static String describe() {
+        return Objects.toStringHelper(IngredientPool.class)
+                .add("stacks", STACKS.size()).add("hits", getHitCount())
+                .add("savedBytes", getSavedBytes()).toString();
+    }
+
+    private IngredientPool() {
+        throw new AssertionError();
+    }
+}
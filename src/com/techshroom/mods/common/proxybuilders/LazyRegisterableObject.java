@@ -0,0 +1,126 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.java8.supplier.BooleanSupplier;
+
+/**
+ * A RegisterableObject that only gets the real object from a supplier once its
+ * state is reached. If the object is disabled at that point, for example by a
+ * config option, the supplier is never called and nothing is registered.
+ * 
+ * <p>
+ * The supplier and toggle are called from {@link #create()}, so see the
+ * thread-safety notes on {@link RegisterableObject}.
+ * </p>
+ * 
+ * @author Kenzie Togami
+ *
+ * @param <Type>
+ *            - stored type
+ */
+public class LazyRegisterableObject<Type> implements RegisterableObject<Type> {
+    private static final BooleanSupplier ALWAYS_ENABLED =
+            new BooleanSupplier() {
+                @Override
+                public boolean get() {
+                    return true;
+                }
+            };
+
+    private final State registerState;
+    private Supplier<? extends RegisterableObject<Type>> supplier;
+    private BooleanSupplier enabled;
+    private RegisterableObject<Type> delegate;
+
+    /**
+     * Creates a new lazy object that is always enabled.
+     * 
+     * @param registerState
+     *            - the state of the supplied object
+     * @param supplier
+     *            - supplies the real object when the state is reached
+     */
+    public LazyRegisterableObject(State registerState,
+            Supplier<? extends RegisterableObject<Type>> supplier) {
+        this(registerState, supplier, ALWAYS_ENABLED);
+    }
+
+    /**
+     * Creates a new lazy object.
+     * 
+     * @param registerState
+     *            - the state of the supplied object
+     * @param supplier
+     *            - supplies the real object when the state is reached
+     * @param enabled
+     *            - checked when the state is reached, if it's {@code false}
+     *            the object is skipped
+     */
+    public LazyRegisterableObject(State registerState,
+            Supplier<? extends RegisterableObject<Type>> supplier,
+            BooleanSupplier enabled) {
+        this.registerState = checkNotNull(registerState);
+        this.supplier = checkNotNull(supplier);
+        this.enabled = checkNotNull(enabled);
+    }
+
+    /**
+     * @return the supplied object, if it has been created
+     */
+    public Optional<RegisterableObject<Type>> getDelegate() {
+        return Optional.fromNullable(delegate);
+    }
+
+    @Override
+    public State registerState() {
+        return registerState;
+    }
+
+    @Override
+    public Type create() throws Throwable {
+        if (supplier == null) {
+            return delegate == null ? null : delegate.create();
+        }
+        Supplier<? extends RegisterableObject<Type>> supplier = this.supplier;
+        boolean enabled = this.enabled.get();
+        // either way, the supplier isn't needed any more
+        this.supplier = null;
+        this.enabled = null;
+        if (!enabled) {
+            return null;
+        }
+        RegisterableObject<Type> delegate =
+                checkNotNull(supplier.get(), "supplier returned null");
+        checkState(delegate.registerState() == registerState,
+                   "supplied %s has state %s, expected %s", delegate,
+                   delegate.registerState(), registerState);
+        this.delegate = delegate;
+        return delegate.create();
+    }
+
+    @Override
+    public void register() {
+        if (delegate != null) {
+            delegate.register();
+        }
+    }
+
+    @Override
+    public void registerClient() {
+        if (delegate != null) {
+            delegate.registerClient();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("registerState", registerState)
+                .add("delegate", delegate).toString();
+    }
+}
@@ -1,10 +1,13 @@
 package com.techshroom.mods.common.proxybuilders;
 
+import com.google.common.base.Optional;
 import com.techshroom.mods.common.Proxy;
 import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.ProxyProfiler;
 
 /**
- * Prints every state phase.
+ * Prints every state phase. If the proxy is profiling, the time taken by the
+ * previous state is printed too.
  * 
  * @author Kenzie Togami
  */
@@ -61,11 +64,21 @@ public final class PhasePrinter {
 
             @Override
             public void register() {
-                Proxy.getHeadOfActiveStack().tryForModLog(modID);
-                Proxy.getHeadOfActiveStack()
-                        .getLogger()
-                        .info("State " + state.linkedState().name() + " for "
-                                      + modID);
+                Proxy proxy = Proxy.getHeadOfActiveStack();
+                proxy.tryForModLog(modID);
+                String message =
+                        "State " + state.linkedState().name() + " for "
+                                + modID;
+                Optional<ProxyProfiler> profiler = proxy.getProfiler();
+                if (profiler.isPresent()) {
+                    Optional<ProxyProfiler.Timing> last =
+                            profiler.get().getStateTiming(proxy
+                                    .getLastPassedState());
+                    if (last.isPresent()) {
+                        message += " (last: " + last.get() + ")";
+                    }
+                }
+                proxy.getLogger().info(message);
             }
 
             @Override
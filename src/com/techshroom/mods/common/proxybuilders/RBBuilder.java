@@ -2,8 +2,6 @@ package com.techshroom.mods.common.proxybuilders;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.reflect.Field;
-
 import net.minecraft.block.Block;
 import net.minecraft.block.Block.SoundType;
 import net.minecraft.client.renderer.tileentity.TileEntitySpecialRenderer;
@@ -15,10 +13,8 @@ import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
-import com.google.common.base.Objects;
-import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.base.Optional;
-import com.google.common.base.Throwables;
+import com.techshroom.mods.common.Constructors;
 import com.techshroom.mods.common.Proxy.State;
 import com.techshroom.mods.common.java8.optional.OptionalFloat;
 import com.techshroom.mods.common.java8.optional.OptionalInt;
@@ -415,16 +411,7 @@ public class RBBuilder<BlockType extends Block, TileType extends TileEntity>
     @Override
     public BlockType create() throws Throwable {
         if (created == null) {
-            try {
-                created = blockClass.newInstance();
-            } catch (ExceptionInInitializerError wrapped) {
-                throw wrapped.getCause();
-            } catch (InstantiationException wrapped) {
-                throw wrapped.getCause();
-            } catch (IllegalAccessException e) {
-                throw new IllegalStateException(blockClass
-                        + " does not allow access to its nullary constructor.");
-            }
+            created = Constructors.newInstance(blockClass);
             if (blockName.isPresent()) {
                 created.setUnlocalizedName(blockName.get());
             }
@@ -504,37 +491,6 @@ public class RBBuilder<BlockType extends Block, TileType extends TileEntity>
 
     @Override
     public String toString() {
-        ToStringHelper toString = Objects.toStringHelper(this);
-        Field[] fields = getClass().getDeclaredFields();
-        Field.setAccessible(fields, true);
-        for (Field field : fields) {
-            Object value = null;
-            try {
-                value = field.get(this);
-            } catch (IllegalArgumentException e) {
-                Throwables.propagate(e);
-            } catch (IllegalAccessException e) {
-                Throwables.propagate(e);
-            }
-            if (value instanceof Optional) {
-                Optional<?> optional = (Optional<?>) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else if (value instanceof OptionalInt) {
-                OptionalInt optional = (OptionalInt) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else if (value instanceof OptionalFloat) {
-                OptionalFloat optional = (OptionalFloat) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else {
-                toString.add(field.getName(), value);
-            }
-        }
-        return toString.toString();
+        return BuilderToString.toString(this);
     }
 }
\ No newline at end of file
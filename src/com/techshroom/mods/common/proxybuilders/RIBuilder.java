@@ -2,20 +2,15 @@ package com.techshroom.mods.common.proxybuilders;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.reflect.Field;
-
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
-import com.google.common.base.Objects;
-import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.base.Optional;
-import com.google.common.base.Throwables;
+import com.techshroom.mods.common.Constructors;
 import com.techshroom.mods.common.Proxy.State;
-import com.techshroom.mods.common.java8.optional.OptionalFloat;
 import com.techshroom.mods.common.java8.optional.OptionalInt;
 
 /**
@@ -245,37 +240,7 @@ public class RIBuilder<ItemType extends Item> implements
 
     @Override
     public String toString() {
-        ToStringHelper toString = Objects.toStringHelper(this);
-        Field[] fields = getClass().getDeclaredFields();
-        for (Field field : fields) {
-            Object value = null;
-            try {
-                value = field.get(this);
-            } catch (IllegalArgumentException e) {
-                Throwables.propagate(e);
-            } catch (IllegalAccessException e) {
-                Throwables.propagate(e);
-            }
-            if (value instanceof Optional) {
-                Optional<?> optional = (Optional<?>) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else if (value instanceof OptionalInt) {
-                OptionalInt optional = (OptionalInt) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else if (value instanceof OptionalFloat) {
-                OptionalFloat optional = (OptionalFloat) value;
-                if (optional.isPresent()) {
-                    toString.add(field.getName(), optional.get());
-                }
-            } else {
-                toString.add(field.getName(), value);
-            }
-        }
-        return toString.toString();
+        return BuilderToString.toString(this);
     }
 
     @Override
@@ -286,7 +251,7 @@ public class RIBuilder<ItemType extends Item> implements
     @Override
     public ItemType create() throws Throwable {
         if (created == null) {
-            created = itemClass.newInstance();
+            created = Constructors.newInstance(itemClass);
             if (renderedIn3D) {
                 created.setFull3D();
             }
@@ -15,6 +15,7 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.IRecipe;
 import net.minecraftforge.fml.common.registry.GameRegistry;
+import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 
@@ -48,6 +49,7 @@ public abstract class RRBuilder<RecipeType> implements
     public static class IRecipeExtension<IRecipeType extends IRecipe>
             extends RRBuilder<IRecipeType> {
         private IRecipeType ref;
+        private RecipeKey recipeKey;
 
         /**
          * Creates a new IRecipeExtension.
@@ -73,6 +75,10 @@ public abstract class RRBuilder<RecipeType> implements
             this.ref = ref;
         }
 
+        void setRecipeKey(RecipeKey recipeKey) {
+            this.recipeKey = recipeKey;
+        }
+
         @Override
         public IRecipeType create() throws Throwable {
             return ref;
@@ -81,6 +87,16 @@ public abstract class RRBuilder<RecipeType> implements
         @Override
         public void register() {
             checkState(ref != null, "not created");
+            RecipeConflictIndex.Result result =
+                    RecipeConflictIndex.add(recipeKey, ref.getRecipeOutput(),
+                                            ref);
+            if (result == RecipeConflictIndex.Result.DUPLICATE
+                    && RecipeConflictIndex.isDropDuplicates()) {
+                return;
+            }
+            // only recipes that are kept are worth sharing inputs for
+            IngredientPool.internInputs(ref);
+            RecipeIndex.add(recipeKey, ref);
             GameRegistry.addRecipe(ref);
         }
     }
@@ -224,12 +240,18 @@ public abstract class RRBuilder<RecipeType> implements
             if (input instanceof ItemStack) {
                 ItemStack stack = (ItemStack) input;
                 GameRegistry.addSmelting(stack, result, xp);
+                SmeltingIndex.add(stack.getItem(), stack.getItemDamage(),
+                                  result, xp);
             } else if (input instanceof Block) {
                 Block block = (Block) input;
                 GameRegistry.addSmelting(block, result, xp);
+                SmeltingIndex.add(Item.getItemFromBlock(block),
+                                  OreDictionary.WILDCARD_VALUE, result, xp);
             } else if (input instanceof Item) {
                 Item item = (Item) input;
                 GameRegistry.addSmelting(item, result, xp);
+                SmeltingIndex.add(item, OreDictionary.WILDCARD_VALUE, result,
+                                  xp);
             } else {
                 throw new IllegalArgumentException(
                         "not handled (did someone try to reflect?): "
@@ -467,7 +489,9 @@ public abstract class RRBuilder<RecipeType> implements
             }
         }
 
-        private final LinkedList<Object> inputStack = Lists.newLinkedList();
+        private final RecipeInputStack inputStack = new RecipeInputStack();
+        // the inputs instead of inputStack, once getInputStack() was called
+        private LinkedList<Object> legacyInputStack;
         private ItemStack result;
 
         /**
@@ -496,10 +520,31 @@ public abstract class RRBuilder<RecipeType> implements
          * 
          * @return The input recipe stack
          */
-        public LinkedList<Object> getInputStack() {
+        public RecipeInputStack getInputs() {
+            if (legacyInputStack != null) {
+                inputStack.setAll(legacyInputStack);
+                legacyInputStack = null;
+            }
             return inputStack;
         }
 
+        /**
+         * Returns the input recipe stack as a linked list. The list holds this
+         * recipe's inputs until {@link #getInputs()} is called.
+         * 
+         * @return The input recipe stack
+         * @deprecated Use {@link #getInputs()}, which doesn't copy the inputs
+         *             into a linked list.
+         */
+        @Deprecated
+        public LinkedList<Object> getInputStack() {
+            if (legacyInputStack == null) {
+                legacyInputStack = Lists.newLinkedList(inputStack);
+                inputStack.clear();
+            }
+            return legacyInputStack;
+        }
+
         /**
          * Sets the contents of the input recipe stack.
          * 
@@ -508,8 +553,12 @@ public abstract class RRBuilder<RecipeType> implements
          * @return this
          */
         public ShapedRecipeExtension setInputStack(Collection<Object> stack) {
-            inputStack.clear();
-            inputStack.addAll(stack);
+            if (legacyInputStack != null) {
+                legacyInputStack.clear();
+                legacyInputStack.addAll(stack);
+            } else {
+                inputStack.setAll(stack);
+            }
             return this;
         }
 
@@ -521,15 +570,22 @@ public abstract class RRBuilder<RecipeType> implements
          * @return this
          */
         public ShapedRecipeExtension push(Object o) {
-            inputStack.push(o);
+            if (legacyInputStack != null) {
+                legacyInputStack.push(o);
+            } else {
+                inputStack.push(o);
+            }
             return this;
         }
 
         @Override
         public ShapedOreRecipe create() throws Throwable {
             if (getRef() == null) {
-                Object[] stack = getInputStack().toArray();
+                Object[] stack =
+                        legacyInputStack != null ? legacyInputStack.toArray()
+                                : inputStack.toRecipeArray();
                 setRef(new ShapedOreRecipe(result, stack));
+                setRecipeKey(RecipeKey.shaped(stack));
             }
             return getRef();
         }
@@ -674,7 +730,9 @@ public abstract class RRBuilder<RecipeType> implements
             }
         }
 
-        private final LinkedList<Object> inputStack = Lists.newLinkedList();
+        private final RecipeInputStack inputStack = new RecipeInputStack();
+        // the inputs instead of inputStack, once getInputStack() was called
+        private LinkedList<Object> legacyInputStack;
         private ItemStack result;
 
         /**
@@ -703,10 +761,31 @@ public abstract class RRBuilder<RecipeType> implements
          * 
          * @return The input recipe stack
          */
-        public LinkedList<Object> getInputStack() {
+        public RecipeInputStack getInputs() {
+            if (legacyInputStack != null) {
+                inputStack.setAll(legacyInputStack);
+                legacyInputStack = null;
+            }
             return inputStack;
         }
 
+        /**
+         * Returns the input recipe stack as a linked list. The list holds this
+         * recipe's inputs until {@link #getInputs()} is called.
+         * 
+         * @return The input recipe stack
+         * @deprecated Use {@link #getInputs()}, which doesn't copy the inputs
+         *             into a linked list.
+         */
+        @Deprecated
+        public LinkedList<Object> getInputStack() {
+            if (legacyInputStack == null) {
+                legacyInputStack = Lists.newLinkedList(inputStack);
+                inputStack.clear();
+            }
+            return legacyInputStack;
+        }
+
         /**
          * Sets the contents of the input recipe stack.
          * 
@@ -715,8 +794,12 @@ public abstract class RRBuilder<RecipeType> implements
          * @return this
          */
         public ShapelessRecipeExtension setInputStack(Collection<Object> stack) {
-            inputStack.clear();
-            inputStack.addAll(stack);
+            if (legacyInputStack != null) {
+                legacyInputStack.clear();
+                legacyInputStack.addAll(stack);
+            } else {
+                inputStack.setAll(stack);
+            }
             return this;
         }
 
@@ -728,15 +811,22 @@ public abstract class RRBuilder<RecipeType> implements
          * @return this
          */
         public ShapelessRecipeExtension push(Object o) {
-            inputStack.push(o);
+            if (legacyInputStack != null) {
+                legacyInputStack.push(o);
+            } else {
+                inputStack.push(o);
+            }
             return this;
         }
 
         @Override
         public ShapelessOreRecipe create() throws Throwable {
             if (getRef() == null) {
-                Object[] stack = getInputStack().toArray();
+                Object[] stack =
+                        legacyInputStack != null ? legacyInputStack.toArray()
+                                : inputStack.toRecipeArray();
                 setRef(new ShapelessOreRecipe(result, stack));
+                setRecipeKey(RecipeKey.shapeless(stack));
             }
             return getRef();
         }
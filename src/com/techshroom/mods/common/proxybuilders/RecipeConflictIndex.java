@@ -0,0 +1,108 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.Map;
+
+import net.minecraft.item.ItemStack;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Finds crafting recipes registered through {@link RRBuilder} that accept the
+ * same grids as an earlier one. A recipe with the same output is a duplicate,
+ * one with a different output is a conflict. Both are logged. Duplicates can
+ * also be dropped before they reach the crafting manager, see
+ * {@link #DROP_DUPLICATES_PROP_KEY}.
+ *
+ * @author Kenzie Togami
+ */
+public final class RecipeConflictIndex {
+    /**
+     * This property key can be set to {@code true} in the system properties to
+     * skip registering duplicate recipes.
+     */
+    public static final String DROP_DUPLICATES_PROP_KEY =
+            "com.techshroom.mods.common.proxybuilders.RecipeConflictIndex.dropDuplicates";
+
+    /**
+     * What {@link RecipeConflictIndex#add} found.
+     *
+     * @author Kenzie Togami
+     */
+    public static enum Result {
+        /**
+         * No earlier recipe accepts the same grids, or the recipe couldn't be
+         * indexed.
+         */
+        ADDED,
+        /**
+         * An earlier recipe accepts the same grids and has the same output.
+         */
+        DUPLICATE,
+        /**
+         * An earlier recipe accepts the same grids but has another output.
+         */
+        CONFLICT;
+    }
+
+    private static final Logger LOGGER = LogManager
+            .getLogger("TSModCore-recipes");
+    private static final Map<RecipeKey, ItemStack> OUTPUTS = Maps.newHashMap();
+    private static int duplicates;
+    private static int conflicts;
+
+    /**
+     * @return {@code true} if duplicate recipes should be dropped
+     */
+    public static boolean isDropDuplicates() {
+        return Boolean.getBoolean(DROP_DUPLICATES_PROP_KEY);
+    }
+
+    static synchronized Result add(RecipeKey key, ItemStack output,
+            Object recipe) {
+        if (key == null) {
+            return Result.ADDED;
+        }
+        ItemStack earlier = OUTPUTS.get(key);
+        if (earlier == null) {
+            OUTPUTS.put(key, output);
+            return Result.ADDED;
+        }
+        if (ItemStack.areItemStacksEqual(earlier, output)) {
+            duplicates++;
+            LOGGER.debug("duplicate recipe " + recipe);
+            return Result.DUPLICATE;
+        }
+        conflicts++;
+        LOGGER.warn("recipe " + recipe + " conflicts with an earlier recipe"
+                + " for " + earlier);
+        return Result.CONFLICT;
+    }
+
+    /**
+     * @return the number of distinct recipes indexed
+     */
+    public static synchronized int size() {
+        return OUTPUTS.size();
+    }
+
+    /**
+     * @return the number of duplicate recipes seen
+     */
+    public static synchronized int getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * @return the number of conflicting recipes seen
+     */
+    public static synchronized int getConflictCount() {
+        return conflicts;
+    }
+
+    private RecipeConflictIndex() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,105 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.List;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapedRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapelessRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.SmeltingExtension;
+
+/**
+ * One recipe definition read by {@link RecipeLoader} or
+ * {@link RecipeSnapshot}, before it is turned into a builder. Items are kept
+ * by name so definitions can be written to a snapshot.
+ *
+ * @author Kenzie Togami
+ */
+final class RecipeDef {
+    static final byte SHAPED = 0;
+    static final byte SHAPELESS = 1;
+    static final byte SMELTING = 2;
+
+    /**
+     * An item stack by item name.
+     */
+    static final class StackDef {
+        final String item;
+        final int meta;
+        final int count;
+        // set if the item was already looked up
+        Item resolved;
+
+        StackDef(String item, int meta, int count) {
+            this.item = item;
+            this.meta = meta;
+            this.count = count;
+        }
+
+        Item item() {
+            if (resolved == null) {
+                resolved = Item.getByNameOrId(item);
+                if (resolved == null) {
+                    throw new IllegalArgumentException("unknown item " + item);
+                }
+            }
+            return resolved;
+        }
+
+        ItemStack toStack() {
+            return new ItemStack(item(), count, meta);
+        }
+    }
+
+    byte type;
+    StackDef result;
+    // shaped only
+    List<String> pattern;
+    // shaped: keys paired with ingredients, shapeless: ingredients
+    List<Character> keys;
+    // ore names or StackDefs
+    List<Object> ingredients;
+    // smelting only
+    StackDef input;
+    float xp;
+
+    RegisterableObject<?> toRegisterable() {
+        ItemStack resultStack = result.toStack();
+        switch (type) {
+            case SHAPED:
+                List<Object> stack =
+                        Lists.newArrayListWithCapacity(pattern.size()
+                                + keys.size() * 2);
+                stack.addAll(pattern);
+                for (int i = 0; i < keys.size(); i++) {
+                    stack.add(keys.get(i));
+                    stack.add(ingredient(ingredients.get(i)));
+                }
+                return new ShapedRecipeExtension().setResult(resultStack)
+                        .setInputStack(stack);
+            case SHAPELESS:
+                List<Object> inputs =
+                        Lists.newArrayListWithCapacity(ingredients.size());
+                for (Object ingredient : ingredients) {
+                    inputs.add(ingredient(ingredient));
+                }
+                return new ShapelessRecipeExtension().setResult(resultStack)
+                        .setInputStack(inputs);
+            case SMELTING:
+                return new SmeltingExtension().setInput(input.toStack())
+                        .setResult(resultStack).setXP(xp);
+            default:
+                throw new IllegalArgumentException("unknown recipe type "
+                        + type);
+        }
+    }
+
+    private static Object ingredient(Object def) {
+        if (def instanceof StackDef) {
+            return ((StackDef) def).toStack();
+        }
+        return def;
+    }
+}
@@ -0,0 +1,284 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Finds crafting recipes registered through {@link RRBuilder} without
+ * scanning all of them. Recipes are grouped by the size of their grid (or
+ * ingredient count, if shapeless) and by one ingredient, so a lookup only
+ * checks the few recipes that could match. Items are grouped by identity
+ * rather than ID, so lookups still work after FML remaps item IDs for a
+ * world. The vanilla recipe list is left alone, this is for machines that
+ * craft on their own.
+ *
+ * <p>
+ * Recipes are collected in plain lists while they are registered, and copied
+ * into an immutable index by the first lookup after that. Registering between
+ * lookups is allowed, but every such lookup copies the index again. Recipes
+ * whose inputs can't be indexed, such as custom {@link IRecipe}s, are checked
+ * one by one on every lookup, so there should only be a few of them.
+ * </p>
+ *
+ * @author Kenzie Togami
+ */
+public final class RecipeIndex {
+    /**
+     * Size of the crafting grid that is searched, the same as Forge's recipes.
+     */
+    private static final int GRID_SIZE = 3;
+
+    /**
+     * A grid shape and one ingredient.
+     */
+    private static final class Bucket {
+        private final int shape;
+        // an Item, or the Integer ID of an ore dictionary entry
+        private final Object ingredient;
+        private final int meta;
+
+        private Bucket(int shape, Object ingredient, int meta) {
+            this.shape = shape;
+            this.ingredient = ingredient;
+            this.meta = meta;
+        }
+
+        @Override
+        public int hashCode() {
+            // Item doesn't override hashCode, so this is its identity
+            return (shape * 31 + ingredient.hashCode()) * 31 + meta;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Bucket)) {
+                return false;
+            }
+            Bucket other = (Bucket) obj;
+            return shape == other.shape && meta == other.meta
+                    && ingredient.equals(other.ingredient);
+        }
+    }
+
+    /**
+     * What lookups read, frozen from the lists registration builds.
+     */
+    private static final class Frozen {
+        private final ImmutableMap<Bucket, ImmutableList<IRecipe>> recipes;
+        private final ImmutableList<IRecipe> unindexed;
+
+        private Frozen(ImmutableMap<Bucket, ImmutableList<IRecipe>> recipes,
+                ImmutableList<IRecipe> unindexed) {
+            this.recipes = recipes;
+            this.unindexed = unindexed;
+        }
+    }
+
+    // the rest are guarded by the class lock
+    private static final Map<Bucket, List<IRecipe>> RECIPES = Maps
+            .newHashMap();
+    // recipes whose inputs RecipeKey doesn't understand
+    private static final List<IRecipe> UNINDEXED = Lists.newArrayList();
+    private static int size;
+    // null if recipes were added since the last freeze
+    private static volatile Frozen frozen;
+
+    /**
+     * Turn a key's ingredient into a bucket. Keys are built with the item IDs
+     * of this launch, so this only works while they are current.
+     */
+    private static Bucket bucket(int shape, long ingredient) {
+        if (RecipeKey.isOre(ingredient)) {
+            return new Bucket(shape, RecipeKey.oreIdOf(ingredient), 0);
+        }
+        Item item = RecipeKey.itemOf(ingredient);
+        return item == null ? null : new Bucket(shape, item,
+                RecipeKey.metaOf(ingredient));
+    }
+
+    static synchronized void add(RecipeKey key, IRecipe recipe) {
+        size++;
+        frozen = null;
+        List<Bucket> buckets = key == null ? null : buckets(key);
+        if (buckets == null) {
+            UNINDEXED.add(recipe);
+            return;
+        }
+        for (Bucket bucket : buckets) {
+            List<IRecipe> recipes = RECIPES.get(bucket);
+            if (recipes == null) {
+                recipes = Lists.newArrayListWithCapacity(1);
+                RECIPES.put(bucket, recipes);
+            }
+            recipes.add(recipe);
+        }
+    }
+
+    private static synchronized Frozen freeze() {
+        Frozen index = frozen;
+        if (index == null) {
+            ImmutableMap.Builder<Bucket, ImmutableList<IRecipe>> recipes =
+                    ImmutableMap.builder();
+            for (Map.Entry<Bucket, List<IRecipe>> entry : RECIPES.entrySet()) {
+                recipes.put(entry.getKey(),
+                            ImmutableList.copyOf(entry.getValue()));
+            }
+            index =
+                    new Frozen(recipes.build(), ImmutableList
+                            .copyOf(UNINDEXED));
+            frozen = index;
+        }
+        return index;
+    }
+
+    private static List<Bucket> buckets(RecipeKey key) {
+        int shape = key.shape();
+        List<Long> ingredients = Lists.newArrayListWithCapacity(2);
+        if (key.isShapeless()) {
+            // any stack in the grid has to match one of these
+            long last = RecipeKey.EMPTY;
+            for (long cell : key.cells) {
+                if (cell != last) {
+                    ingredients.add(cell);
+                    last = cell;
+                }
+            }
+        } else {
+            long first = RecipeKey.firstCell(key.cells);
+            ingredients.add(first);
+            if (key.mirrored) {
+                long mirrored =
+                        RecipeKey.firstCell(RecipeKey.mirror(key.cells,
+                                key.width, key.height));
+                if (mirrored != first) {
+                    ingredients.add(mirrored);
+                }
+            }
+        }
+        List<Bucket> buckets = Lists.newArrayListWithCapacity(ingredients
+                .size());
+        for (long ingredient : ingredients) {
+            Bucket bucket = bucket(shape, ingredient);
+            if (bucket == null) {
+                return null;
+            }
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    /**
+     * Find a recipe that matches the grid. If more than one does, which one is
+     * returned is unspecified; {@link RecipeConflictIndex} reports such
+     * recipes.
+     *
+     * @param grid
+     *            - the crafting grid
+     * @param world
+     *            - the world the crafting happens in
+     * @return the matching recipe, if any
+     */
+    public static Optional<IRecipe> findMatching(InventoryCrafting grid,
+            World world) {
+        Frozen index = frozen;
+        if (index == null) {
+            index = freeze();
+        }
+        int top = GRID_SIZE, bottom = -1, left = GRID_SIZE, right = -1;
+        int count = 0;
+        ItemStack first = null;
+        for (int y = 0; y < GRID_SIZE; y++) {
+            for (int x = 0; x < GRID_SIZE; x++) {
+                ItemStack stack = grid.getStackInRowAndColumn(x, y);
+                if (stack == null) {
+                    continue;
+                }
+                if (first == null) {
+                    first = stack;
+                }
+                count++;
+                top = Math.min(top, y);
+                bottom = y;
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+            }
+        }
+        if (first != null) {
+            int shaped =
+                    RecipeKey.shapedShape(right - left + 1, bottom - top + 1);
+            int shapeless = RecipeKey.shapelessShape(count);
+            Item item = first.getItem();
+            int meta = first.getItemDamage();
+            IRecipe match =
+                    check(index, shaped, shapeless, item, meta, grid, world);
+            if (match == null && meta != OreDictionary.WILDCARD_VALUE) {
+                match = check(index, shaped, shapeless, item,
+                              OreDictionary.WILDCARD_VALUE, grid, world);
+            }
+            for (int ore : OreDictionary.getOreIDs(first)) {
+                if (match != null) {
+                    break;
+                }
+                match = check(index, shaped, shapeless, ore, 0, grid, world);
+            }
+            if (match != null) {
+                return Optional.of(match);
+            }
+        }
+        for (IRecipe recipe : index.unindexed) {
+            if (recipe.matches(grid, world)) {
+                return Optional.of(recipe);
+            }
+        }
+        return Optional.absent();
+    }
+
+    private static IRecipe check(Frozen index, int shaped, int shapeless,
+            Object ingredient, int meta, InventoryCrafting grid, World world) {
+        IRecipe match =
+                check(index, new Bucket(shaped, ingredient, meta), grid, world);
+        if (match == null) {
+            match =
+                    check(index, new Bucket(shapeless, ingredient, meta),
+                          grid, world);
+        }
+        return match;
+    }
+
+    private static IRecipe check(Frozen index, Bucket bucket,
+            InventoryCrafting grid, World world) {
+        List<IRecipe> recipes = index.recipes.get(bucket);
+        if (recipes != null) {
+            for (IRecipe recipe : recipes) {
+                if (recipe.matches(grid, world)) {
+                    return recipe;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of recipes indexed
+     */
+    public static synchronized int size() {
+        return size;
+    }
+
+    private RecipeIndex() {
+        throw new AssertionError();
+    }
+}
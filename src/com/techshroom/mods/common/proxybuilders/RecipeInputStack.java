@@ -0,0 +1,147 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed recipe inputs for the crafting recipe extensions. Keeps some
+ * room at the front so {@link #push(Object)} doesn't shift everything, and can
+ * hand its array to the recipe constructor without another copy.
+ *
+ * @author Kenzie Togami
+ */
+public final class RecipeInputStack extends AbstractList<Object> implements
+        RandomAccess {
+    private static final Object[] EMPTY = {};
+    private static final int MIN_GROWTH = 4;
+
+    private Object[] elements = EMPTY;
+    private int head;
+    private int size;
+
+    RecipeInputStack() {
+    }
+
+    @Override
+    public Object get(int index) {
+        checkElementIndex(index, size);
+        return elements[head + index];
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        checkElementIndex(index, size);
+        Object old = elements[head + index];
+        elements[head + index] = element;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        checkPositionIndex(index, size);
+        modCount++;
+        if (index == 0) {
+            if (head == 0) {
+                grow(true);
+            }
+            elements[--head] = element;
+            size++;
+            return;
+        }
+        if (head + size == elements.length) {
+            grow(false);
+        }
+        int at = head + index;
+        System.arraycopy(elements, at, elements, at + 1, size - index);
+        elements[at] = element;
+        size++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        checkElementIndex(index, size);
+        modCount++;
+        int at = head + index;
+        Object old = elements[at];
+        if (index == 0) {
+            elements[head++] = null;
+        } else {
+            System.arraycopy(elements, at + 1, elements, at, size - index - 1);
+            elements[head + size - 1] = null;
+        }
+        size--;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(elements, head, head + size, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Pushes an element on to the front of the stack, like
+     * {@link java.util.LinkedList#push(Object)}.
+     *
+     * @param element
+     *            - the element to push
+     */
+    public void push(Object element) {
+        add(0, element);
+    }
+
+    /**
+     * Replace the contents with the given elements, using an array of exactly
+     * the right size.
+     *
+     * @param stack
+     *            - the new contents
+     */
+    void setAll(Collection<?> stack) {
+        modCount++;
+        Object[] array = stack.toArray();
+        if (array.getClass() != Object[].class) {
+            array = Arrays.copyOf(array, array.length, Object[].class);
+        }
+        elements = array;
+        head = 0;
+        size = array.length;
+    }
+
+    /**
+     * Get the contents as an array for a recipe constructor. The array is
+     * trimmed at most once and then shared with this stack, so it must not be
+     * kept after the recipe is made.
+     *
+     * @return the contents as an array
+     */
+    Object[] toRecipeArray() {
+        if (head != 0 || size != elements.length) {
+            elements = Arrays.copyOfRange(elements, head, head + size);
+            head = 0;
+        }
+        return elements;
+    }
+
+    private void grow(boolean atFront) {
+        int growth = Math.max(MIN_GROWTH, size >> 1);
+        Object[] grown = new Object[size + growth];
+        // leave the new room where it's needed
+        int newHead = atFront ? growth : 0;
+        System.arraycopy(elements, head, grown, newHead, size);
+        elements = grown;
+        head = newHead;
+    }
+}
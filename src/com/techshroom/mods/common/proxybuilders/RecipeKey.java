@@ -0,0 +1,297 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Normalized shape and ingredients of a crafting recipe, built from the
+ * inputs given to {@link net.minecraftforge.oredict.ShapedOreRecipe} or
+ * {@link net.minecraftforge.oredict.ShapelessOreRecipe}. Two recipes with
+ * equal keys accept the same grids.
+ *
+ * <p>
+ * Each ingredient is packed into a long: ore dictionary entries by ore ID,
+ * items by item ID and metadata. Shaped recipes are trimmed to their
+ * non-empty cells, and those that may be mirrored use whichever of the grid
+ * and its mirror image sorts first. A mirrored recipe only equals another
+ * mirrored recipe, unless its grid is symmetric. Shapeless recipes sort their
+ * ingredients.
+ * </p>
+ *
+ * @author Kenzie Togami
+ */
+final class RecipeKey {
+    static final long EMPTY = 0;
+    private static final long ORE_FLAG = 1L << 62;
+    private static final long ITEM_FLAG = 1L << 61;
+    static final long UNKNOWN = -1;
+
+    /**
+     * Pack an item stack as an ingredient.
+     *
+     * @return the ingredient, or {@link #UNKNOWN} if {@code item} is null
+     */
+    static long itemId(Item item, int meta) {
+        if (item == null) {
+            return UNKNOWN;
+        }
+        return ITEM_FLAG | ((long) Item.getIdFromItem(item) << 16)
+                | (meta & 0xFFFF);
+    }
+
+    /**
+     * The item of a packed item stack. Only valid while the item IDs are the
+     * ones the ingredient was packed with.
+     */
+    static Item itemOf(long ingredient) {
+        return Item.getItemById((int) ((ingredient & ~ITEM_FLAG) >>> 16));
+    }
+
+    static int metaOf(long ingredient) {
+        return (int) (ingredient & 0xFFFF);
+    }
+
+    /**
+     * Pack an ore dictionary entry as an ingredient.
+     */
+    static long oreId(int oreId) {
+        return ORE_FLAG | oreId;
+    }
+
+    static boolean isOre(long ingredient) {
+        return (ingredient & ORE_FLAG) != 0;
+    }
+
+    static int oreIdOf(long ingredient) {
+        return (int) (ingredient & ~ORE_FLAG);
+    }
+
+    private static long ingredientId(Object ingredient) {
+        if (ingredient instanceof String) {
+            return oreId(OreDictionary.getOreID((String) ingredient));
+        }
+        if (ingredient instanceof ItemStack) {
+            ItemStack stack = (ItemStack) ingredient;
+            return itemId(stack.getItem(), stack.getItemDamage());
+        }
+        if (ingredient instanceof Item) {
+            return itemId((Item) ingredient, 0);
+        }
+        if (ingredient instanceof Block) {
+            // Forge matches any metadata for a block
+            return itemId(Item.getItemFromBlock((Block) ingredient),
+                          OreDictionary.WILDCARD_VALUE);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Build the key of a shaped recipe.
+     *
+     * @return the key, or {@code null} if the inputs aren't understood
+     */
+    static RecipeKey shaped(Object[] inputs) {
+        int i = 0;
+        boolean mirrored = true;
+        if (i < inputs.length && inputs[i] instanceof Boolean) {
+            mirrored = (Boolean) inputs[i++];
+        }
+        List<String> rows = Lists.newArrayListWithCapacity(3);
+        if (i < inputs.length && inputs[i] instanceof String[]) {
+            rows.addAll(Arrays.asList((String[]) inputs[i++]));
+        } else {
+            while (i < inputs.length && inputs[i] instanceof String) {
+                rows.add((String) inputs[i++]);
+            }
+        }
+        Map<Character, Long> ids = Maps.newHashMap();
+        for (; i + 1 < inputs.length; i += 2) {
+            if (!(inputs[i] instanceof Character)) {
+                return null;
+            }
+            long id = ingredientId(inputs[i + 1]);
+            if (id == UNKNOWN) {
+                return null;
+            }
+            ids.put((Character) inputs[i], id);
+        }
+        if (i != inputs.length || rows.isEmpty()) {
+            return null;
+        }
+        int width = rows.get(0).length();
+        int height = rows.size();
+        long[] cells = new long[width * height];
+        for (int row = 0; row < height; row++) {
+            String pattern = rows.get(row);
+            if (pattern.length() != width) {
+                return null;
+            }
+            for (int col = 0; col < width; col++) {
+                char c = pattern.charAt(col);
+                if (c == ' ') {
+                    continue;
+                }
+                Long id = ids.get(c);
+                if (id == null) {
+                    return null;
+                }
+                cells[row * width + col] = id;
+            }
+        }
+        return trimmed(cells, width, height, mirrored);
+    }
+
+    private static RecipeKey trimmed(long[] cells, int width, int height,
+            boolean mirrored) {
+        // blank rows and columns around the pattern don't affect matching
+        int top = height, bottom = -1, left = width, right = -1;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (cells[row * width + col] != EMPTY) {
+                    top = Math.min(top, row);
+                    bottom = Math.max(bottom, row);
+                    left = Math.min(left, col);
+                    right = Math.max(right, col);
+                }
+            }
+        }
+        if (bottom < 0) {
+            return null;
+        }
+        int trimmedWidth = right - left + 1;
+        int trimmedHeight = bottom - top + 1;
+        long[] trimmed = new long[trimmedWidth * trimmedHeight];
+        for (int row = 0; row < trimmedHeight; row++) {
+            System.arraycopy(cells, (top + row) * width + left, trimmed, row
+                    * trimmedWidth, trimmedWidth);
+        }
+        if (mirrored) {
+            long[] mirror = mirror(trimmed, trimmedWidth, trimmedHeight);
+            int order = compare(mirror, trimmed);
+            if (order < 0) {
+                trimmed = mirror;
+            }
+            // a symmetric grid matches the same grids either way
+            mirrored = order != 0;
+        }
+        return new RecipeKey(trimmedWidth, trimmedHeight, trimmed, mirrored);
+    }
+
+    /**
+     * Build the key of a shapeless recipe.
+     *
+     * @return the key, or {@code null} if the inputs aren't understood
+     */
+    static RecipeKey shapeless(Object[] inputs) {
+        long[] cells = new long[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            cells[i] = ingredientId(inputs[i]);
+            if (cells[i] == UNKNOWN) {
+                return null;
+            }
+        }
+        Arrays.sort(cells);
+        return new RecipeKey(SHAPELESS, inputs.length, cells, false);
+    }
+
+    static long[] mirror(long[] cells, int width, int height) {
+        long[] mirror = new long[cells.length];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                mirror[row * width + col] =
+                        cells[row * width + width - 1 - col];
+            }
+        }
+        return mirror;
+    }
+
+    private static int compare(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Width of shapeless keys.
+     */
+    static final int SHAPELESS = -1;
+
+    final int width;
+    final int height;
+    final long[] cells;
+    // whether the mirror image of cells also matches, never set for
+    // symmetric grids
+    final boolean mirrored;
+    private final int hash;
+
+    private RecipeKey(int width, int height, long[] cells, boolean mirrored) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.mirrored = mirrored;
+        this.hash =
+                ((width * 31 + height) * 31 + Arrays.hashCode(cells)) * 31
+                        + (mirrored ? 1 : 0);
+    }
+
+    boolean isShapeless() {
+        return width == SHAPELESS;
+    }
+
+    /**
+     * Packs the grid dimensions, or the ingredient count for shapeless
+     * recipes, into 16 bits.
+     */
+    int shape() {
+        return isShapeless() ? shapelessShape(height) : shapedShape(width,
+                                                                    height);
+    }
+
+    static int shapedShape(int width, int height) {
+        return (width & 0x7F) << 8 | (height & 0xFF);
+    }
+
+    static int shapelessShape(int count) {
+        return 0x8000 | (count & 0x7FFF);
+    }
+
+    /**
+     * The first non-empty cell, in reading order.
+     */
+    static long firstCell(long[] cells) {
+        for (long cell : cells) {
+            if (cell != EMPTY) {
+                return cell;
+            }
+        }
+        return EMPTY;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RecipeKey)) {
+            return false;
+        }
+        RecipeKey other = (RecipeKey) obj;
+        return hash == other.hash && width == other.width
+                && height == other.height && mirrored == other.mirrored
+                && Arrays.equals(cells, other.cells);
+    }
+}
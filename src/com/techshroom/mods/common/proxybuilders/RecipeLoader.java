@@ -0,0 +1,409 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.proxybuilders.RecipeDef.StackDef;
+
+/**
+ * Loads recipes from JSON files with a streaming parser, and registers them
+ * with a proxy in batches, so a file's recipes are never all held as builders
+ * at once. A file is an array of recipe objects:
+ *
+ * <pre>
+ * [
+ *   { "type": "shaped", "pattern": ["XX", "XX"], "key": { "X": "ingotIron" },
+ *     "result": { "item": "minecraft:iron_block" } },
+ *   { "type": "shapeless", "ingredients": ["dyeRed", { "item": "minecraft:wool" }],
+ *     "result": { "item": "minecraft:wool", "meta": 14 } },
+ *   { "type": "smelting", "input": { "item": "minecraft:iron_ore" },
+ *     "result": { "item": "minecraft:iron_ingot" }, "xp": 0.7 }
+ * ]
+ * </pre>
+ *
+ * Ingredients are ore dictionary names or item objects, with optional
+ * {@code meta} and {@code count}. Files loaded on the calling thread have
+ * their items looked up as they are read, so they should be loaded once every
+ * item is registered, for example during {@link State#INIT}.
+ * {@linkplain #submit(Proxy, URL) Submitted} files wait for
+ * {@link State#POSTINIT} instead. A file can also be loaded through a
+ * {@linkplain #load(Proxy, URL, File, String) snapshot}, which skips parsing
+ * on later launches.
+ *
+ * @author Kenzie Togami
+ */
+public final class RecipeLoader {
+    static final int BATCH_SIZE = 256;
+    private static final Logger LOGGER = LogManager
+            .getLogger("TSModCore-recipes");
+
+    /**
+     * Load a recipe file in the background. Files submitted together are read
+     * and parsed in parallel, and are all done before {@link State#POSTINIT}.
+     * Items are only looked up once POSTINIT starts, on the thread running
+     * it, because the item registry isn't safe to read from other threads and
+     * may still be growing when the file is submitted. Until then the parsed
+     * recipes are kept in the compact snapshot encoding, and they are turned
+     * into builders and registered a batch at a time during POSTINIT.
+     *
+     * @param proxy
+     *            - the proxy to register recipes with
+     * @param file
+     *            - the file to load
+     * @return the number of recipes read; fails if the file can't be read or
+     *         is malformed, in which case none of its recipes are registered
+     */
+    public static ListenableFuture<Integer> submit(Proxy proxy, URL file) {
+        checkNotNull(proxy);
+        checkNotNull(file);
+        ParsedRecipes recipes = new ParsedRecipes(proxy, file);
+        recipes.parsed = proxy.submitTask(recipes, State.POSTINIT);
+        proxy.registerRegisterableObject(recipes);
+        return recipes.parsed;
+    }
+
+    /**
+     * Parses a submitted file in the background, then registers its recipes
+     * on the loader thread.
+     */
+    private static final class ParsedRecipes implements Callable<Integer>,
+            RegisterableObject<Void> {
+        private final Proxy proxy;
+        private final URL file;
+        private ListenableFuture<Integer> parsed;
+        // published by the task finishing
+        private RecipeSnapshot.Writer recipes;
+
+        private ParsedRecipes(Proxy proxy, URL file) {
+            this.proxy = proxy;
+            this.file = file;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            recipes = parse(file);
+            return recipes.count();
+        }
+
+        @Override
+        public State registerState() {
+            return State.POSTINIT;
+        }
+
+        @Override
+        public Void create() throws Throwable {
+            return null;
+        }
+
+        @Override
+        public void register() {
+            try {
+                // done, POSTINIT waits for its tasks
+                Uninterruptibles.getUninterruptibly(parsed);
+            } catch (ExecutionException e) {
+                // already logged by the proxy
+                return;
+            }
+            try {
+                recipes.registerAll(proxy);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(file + ": "
+                        + e.getMessage(), e);
+            } finally {
+                recipes = null;
+            }
+        }
+
+        @Override
+        public void registerClient() {
+        }
+
+        @Override
+        public String toString() {
+            return "recipes from " + file;
+        }
+    }
+
+    /**
+     * Load a recipe file on this thread.
+     *
+     * @param proxy
+     *            - the proxy to register recipes with
+     * @param file
+     *            - the file to load
+     * @return the number of recipes loaded
+     * @throws IOException
+     *             if the file can't be read or is malformed. Recipes before
+     *             the error are still registered.
+     */
+    public static int load(Proxy proxy, URL file) throws IOException {
+        return load(proxy, file, null);
+    }
+
+    /**
+     * Load a recipe file on this thread, using a snapshot if possible. If the
+     * snapshot is missing or out of date, the file is parsed and a new
+     * snapshot is written. The snapshot is keyed by the file's contents, the
+     * versions of every loaded mod, and {@code configKey}.
+     *
+     * @param proxy
+     *            - the proxy to register recipes with
+     * @param file
+     *            - the file to load
+     * @param snapshot
+     *            - where to keep the snapshot
+     * @param configKey
+     *            - anything else that affects the recipes, such as config
+     *            values, or {@code null}
+     * @return the number of recipes loaded
+     * @throws IOException
+     *             if the file can't be read or is malformed. Recipes before
+     *             the error are still registered.
+     */
+    public static int load(Proxy proxy, URL file, File snapshot,
+            String configKey) throws IOException {
+        String key = snapshotKey(file, configKey);
+        int count = RecipeSnapshot.read(proxy, snapshot, key);
+        if (count != RecipeSnapshot.UNUSABLE) {
+            return count;
+        }
+        RecipeSnapshot.Writer writer = new RecipeSnapshot.Writer();
+        count = load(proxy, file, writer);
+        try {
+            writer.writeTo(snapshot, key);
+        } catch (IOException e) {
+            // the recipes are loaded, the next launch just parses again
+            LOGGER.warn("couldn't write recipe snapshot " + snapshot, e);
+        }
+        return count;
+    }
+
+    private static String snapshotKey(URL file, String configKey)
+            throws IOException {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putBytes(Resources.asByteSource(file).hash(Hashing.sha1())
+                .asBytes());
+        for (ModContainer mod : Loader.instance().getActiveModList()) {
+            hasher.putString(mod.getModId(), Charsets.UTF_8)
+                    .putString(mod.getVersion(), Charsets.UTF_8);
+        }
+        hasher.putString(Strings.nullToEmpty(configKey), Charsets.UTF_8);
+        return hasher.hash().toString();
+    }
+
+    private static int load(Proxy proxy, URL file, RecipeSnapshot.Writer writer)
+            throws IOException {
+        Closer closer = Closer.create();
+        try {
+            JsonReader reader =
+                    closer.register(new JsonReader(new InputStreamReader(
+                            file.openStream(), Charsets.UTF_8)));
+            return load(proxy, reader, file.toString(), writer);
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
+
+    private static int load(Proxy proxy, JsonReader reader, String source,
+            RecipeSnapshot.Writer writer) throws IOException {
+        List<RegisterableObject<?>> batch =
+                Lists.newArrayListWithCapacity(BATCH_SIZE);
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            try {
+                RecipeDef def = readRecipe(reader);
+                batch.add(def.toRegisterable());
+                if (writer != null) {
+                    writer.add(def);
+                }
+            } catch (IllegalArgumentException e) {
+                throw malformed(source, count, e);
+            } catch (IllegalStateException e) {
+                throw malformed(source, count, e);
+            }
+            count++;
+            if (batch.size() == BATCH_SIZE) {
+                proxy.registerAll(batch);
+                batch.clear();
+            }
+        }
+        reader.endArray();
+        proxy.registerAll(batch);
+        return count;
+    }
+
+    /**
+     * Parse a recipe file into the snapshot encoding without looking up any
+     * items.
+     */
+    static RecipeSnapshot.Writer parse(URL file) throws IOException {
+        Closer closer = Closer.create();
+        try {
+            JsonReader reader =
+                    closer.register(new JsonReader(new InputStreamReader(
+                            file.openStream(), Charsets.UTF_8)));
+            RecipeSnapshot.Writer recipes = new RecipeSnapshot.Writer();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                try {
+                    recipes.add(readRecipe(reader));
+                } catch (IllegalArgumentException e) {
+                    throw malformed(file.toString(), recipes.count(), e);
+                } catch (IllegalStateException e) {
+                    throw malformed(file.toString(), recipes.count(), e);
+                }
+            }
+            reader.endArray();
+            return recipes;
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
+
+    private static IOException malformed(String source, int index,
+            RuntimeException e) {
+        return new IOException(source + ": recipe " + index + ": "
+                + e.getMessage(), e);
+    }
+
+    private static RecipeDef readRecipe(JsonReader reader) throws IOException {
+        RecipeDef def = new RecipeDef();
+        String type = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("type")) {
+                type = reader.nextString();
+            } else if (name.equals("result")) {
+                def.result = readStack(reader);
+            } else if (name.equals("pattern")) {
+                def.pattern = Lists.newArrayListWithCapacity(3);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    def.pattern.add(reader.nextString());
+                }
+                reader.endArray();
+            } else if (name.equals("key")) {
+                def.keys = Lists.newArrayList();
+                def.ingredients = Lists.newArrayList();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String c = reader.nextName();
+                    if (c.length() != 1) {
+                        throw new IllegalArgumentException("key '" + c
+                                + "' is not a single character");
+                    }
+                    def.keys.add(c.charAt(0));
+                    def.ingredients.add(readIngredient(reader));
+                }
+                reader.endObject();
+            } else if (name.equals("ingredients")) {
+                def.ingredients = Lists.newArrayList();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    def.ingredients.add(readIngredient(reader));
+                }
+                reader.endArray();
+            } else if (name.equals("input")) {
+                def.input = readStack(reader);
+            } else if (name.equals("xp")) {
+                def.xp = (float) reader.nextDouble();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (def.result == null) {
+            throw new IllegalArgumentException("missing result");
+        }
+        if ("shaped".equals(type)) {
+            if (def.pattern == null || def.keys == null) {
+                throw new IllegalArgumentException(
+                        "shaped recipe needs a pattern and key");
+            }
+            def.type = RecipeDef.SHAPED;
+        } else if ("shapeless".equals(type)) {
+            if (def.ingredients == null || def.keys != null) {
+                throw new IllegalArgumentException(
+                        "shapeless recipe needs ingredients and no key");
+            }
+            def.type = RecipeDef.SHAPELESS;
+        } else if ("smelting".equals(type)) {
+            if (def.input == null) {
+                throw new IllegalArgumentException(
+                        "smelting recipe needs an input");
+            }
+            def.type = RecipeDef.SMELTING;
+        } else {
+            throw new IllegalArgumentException("unknown recipe type " + type);
+        }
+        return def;
+    }
+
+    private static Object readIngredient(JsonReader reader)
+            throws IOException {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+        return readStack(reader);
+    }
+
+    private static StackDef readStack(JsonReader reader) throws IOException {
+        String itemName = null;
+        int meta = 0;
+        int count = 1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("item")) {
+                itemName = reader.nextString();
+            } else if (name.equals("meta")) {
+                meta = reader.nextInt();
+            } else if (name.equals("count")) {
+                count = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (itemName == null) {
+            throw new IllegalArgumentException("missing item");
+        }
+        return new StackDef(itemName, meta, count);
+    }
+
+    private RecipeLoader() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,365 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import net.minecraft.item.Item;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.proxybuilders.RecipeDef.StackDef;
+
+/**
+ * Binary snapshot of the recipes read from one file, so later launches can
+ * skip parsing. The snapshot is read into memory whole. It stores a key, and
+ * is only used if the key matches and every item in it still exists.
+ *
+ * <p>
+ * Layout: magic, version, key, body CRC, body length, then the body. The body
+ * is a string table (each entry flagged if it's an item name) followed by the
+ * recipes, which refer to strings by index.
+ * </p>
+ *
+ * @author Kenzie Togami
+ */
+final class RecipeSnapshot {
+    /**
+     * Returned by {@link #read(Proxy, File, String)} if the snapshot can't be
+     * used.
+     */
+    static final int UNUSABLE = -1;
+
+    private static final int MAGIC = 0x54535253;
+    private static final int VERSION = 1;
+    private static final byte PLAIN_STRING = 0;
+    private static final byte ITEM_STRING = 1;
+    private static final byte ORE_INGREDIENT = 0;
+    private static final byte STACK_INGREDIENT = 1;
+
+    /**
+     * Collects recipe definitions for a new snapshot, or for a submitted file
+     * waiting to be registered.
+     */
+    static final class Writer {
+        private final Map<String, Integer> strings = Maps.newLinkedHashMap();
+        private final Map<String, Boolean> itemStrings = Maps.newHashMap();
+        private final ByteArrayDataOutput recipes = ByteStreams
+                .newDataOutput();
+        private int count;
+
+        void add(RecipeDef def) {
+            recipes.writeByte(def.type);
+            writeStack(def.result);
+            switch (def.type) {
+                case RecipeDef.SHAPED:
+                    recipes.writeInt(def.pattern.size());
+                    for (String row : def.pattern) {
+                        recipes.writeInt(string(row, false));
+                    }
+                    recipes.writeInt(def.keys.size());
+                    for (int i = 0; i < def.keys.size(); i++) {
+                        recipes.writeChar(def.keys.get(i));
+                        writeIngredient(def.ingredients.get(i));
+                    }
+                    break;
+                case RecipeDef.SHAPELESS:
+                    recipes.writeInt(def.ingredients.size());
+                    for (Object ingredient : def.ingredients) {
+                        writeIngredient(ingredient);
+                    }
+                    break;
+                case RecipeDef.SMELTING:
+                    writeStack(def.input);
+                    recipes.writeFloat(def.xp);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown recipe type "
+                            + def.type);
+            }
+            count++;
+        }
+
+        private void writeIngredient(Object ingredient) {
+            if (ingredient instanceof StackDef) {
+                recipes.writeByte(STACK_INGREDIENT);
+                writeStack((StackDef) ingredient);
+            } else {
+                recipes.writeByte(ORE_INGREDIENT);
+                recipes.writeInt(string((String) ingredient, false));
+            }
+        }
+
+        private void writeStack(StackDef stack) {
+            recipes.writeInt(string(stack.item, true));
+            recipes.writeInt(stack.meta);
+            recipes.writeInt(stack.count);
+        }
+
+        private int string(String string, boolean item) {
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            if (item) {
+                itemStrings.put(string, Boolean.TRUE);
+            }
+            return index;
+        }
+
+        int count() {
+            return count;
+        }
+
+        /**
+         * Register the collected recipes a batch at a time, so only the
+         * encoded recipes and one batch of builders are held at once.
+         *
+         * @throws IllegalArgumentException
+         *             if an item doesn't exist. Every item is looked up first,
+         *             so nothing is registered in that case.
+         */
+        void registerAll(Proxy proxy) {
+            String[] table =
+                    strings.keySet().toArray(new String[strings.size()]);
+            Item[] items = new Item[table.length];
+            for (int i = 0; i < table.length; i++) {
+                if (itemStrings.containsKey(table[i])) {
+                    items[i] = Item.getByNameOrId(table[i]);
+                    if (items[i] == null) {
+                        throw new IllegalArgumentException("unknown item "
+                                + table[i]);
+                    }
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(recipes.toByteArray());
+            List<RegisterableObject<?>> batch =
+                    Lists.newArrayListWithCapacity(Math.min(count,
+                            RecipeLoader.BATCH_SIZE));
+            for (int i = 0; i < count; i++) {
+                batch.add(readRecipe(buffer, table, items).toRegisterable());
+                if (batch.size() == RecipeLoader.BATCH_SIZE) {
+                    proxy.registerAll(batch);
+                    batch.clear();
+                }
+            }
+            proxy.registerAll(batch);
+        }
+
+        /**
+         * Write the snapshot. The file is replaced in one step, so readers
+         * never see a partial snapshot.
+         */
+        void writeTo(File file, String key) throws IOException {
+            ByteArrayDataOutput body = ByteStreams.newDataOutput();
+            body.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                body.writeByte(itemStrings.containsKey(string) ? ITEM_STRING
+                        : PLAIN_STRING);
+                writeString(body, string);
+            }
+            body.writeInt(count);
+            byte[] bodyBytes = body.toByteArray();
+            byte[] recipeBytes = recipes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bodyBytes);
+            crc.update(recipeBytes);
+
+            ByteArrayDataOutput header = ByteStreams.newDataOutput();
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            writeString(header, key);
+            header.writeInt((int) crc.getValue());
+            header.writeInt(bodyBytes.length + recipeBytes.length);
+
+            File parent = file.getAbsoluteFile().getParentFile();
+            Files.createParentDirs(file);
+            File temp = File.createTempFile(file.getName(), ".tmp", parent);
+            try {
+                Closer closer = Closer.create();
+                try {
+                    OutputStream out =
+                            closer.register(new FileOutputStream(temp));
+                    out.write(header.toByteArray());
+                    out.write(bodyBytes);
+                    out.write(recipeBytes);
+                } catch (Throwable t) {
+                    throw closer.rethrow(t);
+                } finally {
+                    closer.close();
+                }
+                if (!temp.renameTo(file)) {
+                    // some platforms won't rename over an existing file
+                    file.delete();
+                    Files.move(temp, file);
+                }
+            } finally {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * Register the recipes in a snapshot.
+     *
+     * @return the number of recipes, or {@link #UNUSABLE} if the snapshot is
+     *         missing, for another key, damaged, or refers to a missing item.
+     *         Nothing is registered in that case.
+     */
+    static int read(Proxy proxy, File file, String key) throws IOException {
+        if (!file.isFile()) {
+            return UNUSABLE;
+        }
+        // not mapped, a mapping would keep the file from being replaced on
+        // some platforms until it's collected
+        ByteBuffer buffer = ByteBuffer.wrap(Files.toByteArray(file));
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || !readString(buffer).equals(key)) {
+                return UNUSABLE;
+            }
+            int crc = buffer.getInt();
+            int length = buffer.getInt();
+            if (length != buffer.remaining() || crc(buffer) != crc) {
+                return UNUSABLE;
+            }
+            int stringCount = buffer.getInt();
+            if (stringCount < 0 || stringCount > buffer.remaining()) {
+                return UNUSABLE;
+            }
+            String[] strings = new String[stringCount];
+            Item[] items = new Item[strings.length];
+            for (int i = 0; i < strings.length; i++) {
+                boolean item = buffer.get() == ITEM_STRING;
+                strings[i] = readString(buffer);
+                if (item) {
+                    // check every item before registering anything
+                    items[i] = Item.getByNameOrId(strings[i]);
+                    if (items[i] == null) {
+                        return UNUSABLE;
+                    }
+                }
+            }
+            int count = buffer.getInt();
+            if (count < 0) {
+                return UNUSABLE;
+            }
+            // read the whole body before registering anything
+            int capacity = Math.min(count, buffer.remaining());
+            List<RegisterableObject<?>> recipes =
+                    Lists.newArrayListWithCapacity(capacity);
+            for (int i = 0; i < count; i++) {
+                recipes.add(readRecipe(buffer, strings, items)
+                        .toRegisterable());
+            }
+            if (buffer.hasRemaining()) {
+                return UNUSABLE;
+            }
+            proxy.registerAll(recipes);
+            return count;
+        } catch (BufferUnderflowException e) {
+            return UNUSABLE;
+        } catch (IndexOutOfBoundsException e) {
+            // a string index past the table
+            return UNUSABLE;
+        } catch (IllegalArgumentException e) {
+            // an unknown recipe type, or a size that can't be right
+            return UNUSABLE;
+        }
+    }
+
+    private static RecipeDef readRecipe(ByteBuffer buffer, String[] strings,
+            Item[] items) {
+        RecipeDef def = new RecipeDef();
+        def.type = buffer.get();
+        def.result = readStack(buffer, strings, items);
+        switch (def.type) {
+            case RecipeDef.SHAPED:
+                int rows = buffer.getInt();
+                def.pattern = Lists.newArrayListWithCapacity(rows);
+                for (int i = 0; i < rows; i++) {
+                    def.pattern.add(strings[buffer.getInt()]);
+                }
+                int keys = buffer.getInt();
+                def.keys = Lists.newArrayListWithCapacity(keys);
+                def.ingredients = Lists.newArrayListWithCapacity(keys);
+                for (int i = 0; i < keys; i++) {
+                    def.keys.add(buffer.getChar());
+                    def.ingredients.add(readIngredient(buffer, strings, items));
+                }
+                break;
+            case RecipeDef.SHAPELESS:
+                int size = buffer.getInt();
+                def.ingredients = Lists.newArrayListWithCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    def.ingredients.add(readIngredient(buffer, strings, items));
+                }
+                break;
+            case RecipeDef.SMELTING:
+                def.input = readStack(buffer, strings, items);
+                def.xp = buffer.getFloat();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown recipe type "
+                        + def.type);
+        }
+        return def;
+    }
+
+    private static Object readIngredient(ByteBuffer buffer, String[] strings,
+            Item[] items) {
+        if (buffer.get() == STACK_INGREDIENT) {
+            return readStack(buffer, strings, items);
+        }
+        return strings[buffer.getInt()];
+    }
+
+    private static StackDef readStack(ByteBuffer buffer, String[] strings,
+            Item[] items) {
+        int name = buffer.getInt();
+        StackDef stack =
+                new StackDef(strings[name], buffer.getInt(), buffer.getInt());
+        stack.resolved = items[name];
+        return stack;
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                   buffer.remaining());
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(ByteArrayDataOutput out, String string) {
+        out.writeInt(string.length());
+        out.writeChars(string);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        // long, so a garbage length can't overflow past the check
+        if (length < 0 || (long) length * 2 > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        char[] chars = new char[length];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + length * 2);
+        return new String(chars);
+    }
+
+    private RecipeSnapshot() {
+        throw new AssertionError();
+    }
+}
@@ -8,6 +8,16 @@ import com.techshroom.mods.common.Proxy.State;
 /**
  * Represents an object that can be registered, probably with Minecraft.
  * 
+ * <p>
+ * Thread-safety: if the proxy has
+ * {@linkplain com.techshroom.mods.common.Proxy#setParallelCreate(boolean)
+ * parallel create} enabled, {@link #create()} may be called on a worker thread,
+ * at the same time as {@code create()} on other objects. It must only touch
+ * state owned by this object, and must not register other objects with the
+ * proxy. {@link #register()} and {@link #registerClient()} are always called
+ * on the loader thread, after {@code create()} has returned.
+ * </p>
+ * 
  * @author Kenzie Togami
  *
  * @param <Type>
@@ -23,7 +33,8 @@ public interface RegisterableObject<Type> {
 
     /**
      * Creates the Type bound to this object. Implementers: Don't register the
-     * object in this method.
+     * object in this method, and see the thread-safety notes on this
+     * interface.
      * 
      * @return the created object of type Type.
      * 
@@ -0,0 +1,17 @@
+package com.techshroom.mods.common.proxybuilders;
+
+/**
+ * A RegisterableObject that the proxy keeps after its state is passed, so it
+ * can be queried later with
+ * {@link com.techshroom.mods.common.Proxy#getRetainedObjects(com.techshroom.mods.common.Proxy.State)
+ * getRetainedObjects}. Other objects are released once their state is passed,
+ * so they can be garbage collected.
+ * 
+ * @author Kenzie Togami
+ *
+ * @param <Type>
+ *            - stored type
+ */
+public interface RetainedRegisterableObject<Type> extends
+        RegisterableObject<Type> {
+}
@@ -0,0 +1,197 @@
+package com.techshroom.mods.common.proxybuilders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Furnace recipes registered through {@link RRBuilder.SmeltingExtension},
+ * hashed by item and metadata. Unlike the vanilla furnace list, a lookup
+ * doesn't compare against every recipe. Items are compared by identity rather
+ * than ID, so lookups still work after FML remaps item IDs for a world.
+ * Lookups don't lock and may run on any thread.
+ *
+ * @author Kenzie Togami
+ */
+public final class SmeltingIndex {
+    /**
+     * One furnace recipe.
+     *
+     * @author Kenzie Togami
+     */
+    public static final class Entry {
+        private final Item item;
+        private final int meta;
+        private final ItemStack result;
+        private final float xp;
+
+        private Entry(Item item, int meta, ItemStack result, float xp) {
+            this.item = item;
+            this.meta = meta;
+            this.result = result;
+            this.xp = xp;
+        }
+
+        /**
+         * @return the input item
+         */
+        public Item getItem() {
+            return item;
+        }
+
+        /**
+         * @return the input metadata, or {@link OreDictionary#WILDCARD_VALUE}
+         */
+        public int getMeta() {
+            return meta;
+        }
+
+        /**
+         * Returns the result. It is shared, so copy it before handing it out.
+         *
+         * @return the result
+         */
+        public ItemStack getResult() {
+            return result;
+        }
+
+        /**
+         * @return the experience given after smelting
+         */
+        public float getXP() {
+            return xp;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("item", item)
+                    .add("meta", meta).add("result", result).add("xp", xp)
+                    .toString();
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // open addressing with linear probing; entries are immutable, so readers
+    // only need to see the array
+    private static volatile Entry[] table = new Entry[INITIAL_CAPACITY];
+    private static int size;
+    private static volatile ImmutableList<Entry> exported;
+
+    static synchronized void add(Item item, int meta, ItemStack result,
+            float xp) {
+        if (item == null) {
+            // a block without an item can't be put in a furnace anyway
+            return;
+        }
+        Entry entry = new Entry(item, meta, result, xp);
+        Entry[] entries = table;
+        int slot = find(entries, item, meta);
+        if (entries[slot] == null) {
+            if ((size + 1) * 4 > entries.length * 3) {
+                entries = resize(entries);
+                slot = find(entries, item, meta);
+            }
+            size++;
+        }
+        // a later recipe for the same input replaces the earlier one
+        entries[slot] = entry;
+        table = entries;
+        exported = null;
+    }
+
+    private static Entry[] resize(Entry[] entries) {
+        Entry[] resized = new Entry[entries.length * 2];
+        for (Entry entry : entries) {
+            if (entry != null) {
+                resized[find(resized, entry.item, entry.meta)] = entry;
+            }
+        }
+        return resized;
+    }
+
+    // the entry's slot, or the empty slot it would go in
+    private static int find(Entry[] entries, Item item, int meta) {
+        int mask = entries.length - 1;
+        int slot = mix(item, meta) & mask;
+        Entry entry;
+        while ((entry = entries[slot]) != null
+                && (entry.item != item || entry.meta != meta)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(Item item, int meta) {
+        long h =
+                ((long) System.identityHashCode(item) << 32 | meta
+                        & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    private static Entry get(Entry[] entries, Item item, int meta) {
+        return entries[find(entries, item, meta)];
+    }
+
+    /**
+     * Find the furnace recipe for a stack. Recipes for the exact metadata come
+     * before recipes for any metadata.
+     *
+     * @param input
+     *            - the stack to smelt
+     * @return the recipe, if any
+     */
+    public static Optional<Entry> lookup(ItemStack input) {
+        checkNotNull(input);
+        Entry[] entries = table;
+        Item item = input.getItem();
+        Entry entry = get(entries, item, input.getItemDamage());
+        if (entry == null) {
+            entry = get(entries, item, OreDictionary.WILDCARD_VALUE);
+        }
+        return Optional.fromNullable(entry);
+    }
+
+    /**
+     * Get every recipe, for machines that keep their own tables. The list is
+     * only rebuilt after a recipe is added.
+     *
+     * @return every recipe in the index
+     */
+    public static ImmutableList<Entry> export() {
+        ImmutableList<Entry> list = exported;
+        if (list == null) {
+            synchronized (SmeltingIndex.class) {
+                list = exported;
+                if (list == null) {
+                    ImmutableList.Builder<Entry> builder =
+                            ImmutableList.builder();
+                    for (Entry entry : table) {
+                        if (entry != null) {
+                            builder.add(entry);
+                        }
+                    }
+                    exported = list = builder.build();
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the number of recipes indexed
+     */
+    public static synchronized int size() {
+        return size;
+    }
+
+    private SmeltingIndex() {
+        throw new AssertionError();
+    }
+}
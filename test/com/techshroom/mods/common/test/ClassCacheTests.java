@@ -0,0 +1,81 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.techshroom.mods.common.ClassCache;
+import com.techshroom.mods.common.Constructors;
+import com.techshroom.mods.common.Generics;
+
+/**
+ * Tests for {@link ClassCache} and its users.
+ * 
+ * @author Kenzie Togami
+ */
+public class ClassCacheTests {
+    /**
+     * Values are computed once per class, and again after removal.
+     */
+    @Test
+    public void computeOnce() {
+        final AtomicInteger computed = new AtomicInteger();
+        ClassCache<String> names = new ClassCache<String>() {
+            @Override
+            protected String computeValue(Class<?> type) {
+                computed.incrementAndGet();
+                return type.getSimpleName();
+            }
+        };
+        assertEquals("String", names.get(String.class));
+        assertEquals("String", names.get(String.class));
+        assertEquals("Integer", names.get(Integer.class));
+        assertEquals(2, computed.get());
+        names.remove(String.class);
+        assertEquals("String", names.get(String.class));
+        assertEquals(3, computed.get());
+    }
+
+    /**
+     * Exceptions from computeValue come out unwrapped and aren't cached.
+     */
+    @Test
+    public void exceptionsPassThrough() {
+        final AtomicInteger computed = new AtomicInteger();
+        ClassCache<Object> failing = new ClassCache<Object>() {
+            @Override
+            protected Object computeValue(Class<?> type) {
+                computed.incrementAndGet();
+                throw new IllegalStateException(type.getName());
+            }
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                failing.get(Object.class);
+                fail("expected an exception");
+            } catch (IllegalStateException expected) {
+                assertEquals("java.lang.Object", expected.getMessage());
+            }
+        }
+        assertEquals(2, computed.get());
+        try {
+            Constructors.nullary(Runnable.class);
+            fail("expected an exception for an interface");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * Empty arrays are shared and of the right type.
+     */
+    @Test
+    public void emptyArray() {
+        String[] empty = Generics.emptyArray(String.class);
+        assertEquals(0, empty.length);
+        assertSame(empty, Generics.emptyArray(String.class));
+        assertEquals(Integer[].class, Generics.emptyArray(Integer.class)
+                .getClass());
+    }
+}
@@ -0,0 +1,186 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.techshroom.mods.common.collect.IntArrayList;
+import com.techshroom.mods.common.collect.IntFloatMap;
+import com.techshroom.mods.common.collect.IntIntMap;
+import com.techshroom.mods.common.collect.ObjectIntMap;
+import com.techshroom.mods.common.java8.function.IntOperators;
+import com.techshroom.mods.common.java8.function.IntUnaryOperator;
+import com.techshroom.mods.common.java8.function.ToIntFunction;
+import com.techshroom.mods.common.java8.optional.OptionalFloat;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * Tests for the {@code collect} package.
+ * 
+ * @author Kenzie Togami
+ */
+public class CollectTests {
+    /**
+     * IntIntMap agrees with a HashMap under random puts and removes, including
+     * the zero key.
+     */
+    @Test
+    public void intIntMapMatchesHashMap() {
+        IntIntMap map = IntIntMap.create();
+        Map<Integer, Integer> expected = Maps.newHashMap();
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(512) - 256;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                assertEquals(!expected.containsKey(key), map.put(key, i));
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = -256; key < 256; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value != null, map.containsKey(key));
+            assertEquals(value == null ? -1 : value.intValue(),
+                         map.get(key, -1));
+        }
+        int seen = 0;
+        for (IntIntMap.Cursor c = map.cursor(); c.advance();) {
+            assertEquals(expected.get(c.key()).intValue(), c.value());
+            seen++;
+        }
+        assertEquals(expected.size(), seen);
+    }
+
+    /**
+     * addTo and computeIfAbsent start from nothing.
+     */
+    @Test
+    public void intIntMapCounting() {
+        IntIntMap map = IntIntMap.createWithExpectedSize(2);
+        assertEquals(OptionalInt.absent(), map.get(7));
+        assertEquals(3, map.addTo(7, 3));
+        assertEquals(5, map.addTo(7, 2));
+        assertEquals(OptionalInt.of(5), map.get(7));
+        assertEquals(0, map.computeIfAbsent(0, IntOperators.identity()));
+        assertEquals(9, map.computeIfAbsent(9, IntOperators.identity()));
+        assertEquals(9, map.computeIfAbsent(9, IntOperators.constant(1)));
+        assertEquals(3, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+    }
+
+    /**
+     * computeIfAbsent stores the key once, even if the function adds it, or
+     * grows the map, itself.
+     */
+    @Test
+    public void computeIfAbsentAddingKey() {
+        final IntIntMap ints = IntIntMap.createWithExpectedSize(2);
+        assertEquals(2, ints.computeIfAbsent(1, new IntUnaryOperator() {
+            @Override
+            public int applyAsInt(int key) {
+                for (int i = 1; i <= 20; i++) {
+                    ints.put(i, -i);
+                }
+                return 2;
+            }
+        }));
+        assertEquals(20, ints.size());
+        assertEquals(OptionalInt.of(2), ints.get(1));
+        int seen = 0;
+        for (IntIntMap.Cursor cursor = ints.cursor(); cursor.advance();) {
+            seen++;
+        }
+        assertEquals(20, seen);
+
+        final ObjectIntMap<String> objects = ObjectIntMap.create();
+        ToIntFunction<String> adding = new ToIntFunction<String>() {
+            @Override
+            public int applyAsInt(String key) {
+                objects.put(key, 1);
+                return 2;
+            }
+        };
+        assertEquals(2, objects.computeIfAbsent("a", adding));
+        assertEquals(1, objects.size());
+        assertEquals(OptionalInt.of(2), objects.get("a"));
+    }
+
+    /**
+     * ObjectIntMap works with IntOperators.forMap.
+     */
+    @Test
+    public void objectIntMapForMap() {
+        ObjectIntMap<String> map = ObjectIntMap.create();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        assertTrue(map.remove("key50"));
+        assertFalse(map.remove("key50"));
+        assertEquals(99, map.size());
+        ToIntFunction<String> lookup = IntOperators.forMap(map);
+        assertEquals(42, lookup.applyAsInt("key42"));
+        try {
+            lookup.applyAsInt("key50");
+            fail("expected an exception for a missing key");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(-1, IntOperators.forMap(map, -1).applyAsInt("key50"));
+        assertEquals(1, map.computeIfAbsent("a", new ToIntFunction<String>() {
+            @Override
+            public int applyAsInt(String input) {
+                return input.length();
+            }
+        }));
+    }
+
+    /**
+     * IntFloatMap keeps float values exactly.
+     */
+    @Test
+    public void intFloatMap() {
+        IntFloatMap map = IntFloatMap.create();
+        map.put(1, 0.5f);
+        map.put(2, Float.NaN);
+        assertEquals(0.75f, map.addTo(1, 0.25f), 0);
+        assertEquals(OptionalFloat.of(0.75f), map.get(1));
+        assertTrue(Float.isNaN(map.get(2, 0)));
+        assertEquals(-1f, map.get(3, -1f), 0);
+        IntFloatMap other = IntFloatMap.create();
+        other.put(2, Float.NaN);
+        other.put(1, 0.75f);
+        assertEquals(map, other);
+    }
+
+    /**
+     * IntArrayList grows, inserts and removes like an ArrayList.
+     */
+    @Test
+    public void intArrayList() {
+        IntArrayList list = IntArrayList.create();
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+        }
+        list.add(0, -1);
+        assertEquals(-1, list.removeAt(0));
+        assertEquals(5, list.removeAt(5));
+        list.replaceAll(IntOperators.constant(2));
+        assertEquals(19, list.size());
+        assertEquals(0, list.indexOf(2));
+        list.addAll(1, 0);
+        list.sort();
+        assertEquals(21, list.size());
+        assertArrayEquals(new int[] { 0, 1, 2 }, new int[] { list.get(0),
+                list.get(1), list.get(2) });
+        IntArrayList small = IntArrayList.of(3, 4);
+        small.removeAt(0);
+        assertEquals(IntArrayList.of(4), small);
+    }
+}
@@ -0,0 +1,145 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.minecraftforge.fml.common.event.FMLConstructionEvent;
+import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+
+/**
+ * Tests for registering with a {@link Proxy} from many threads.
+ * 
+ * @author Kenzie Togami
+ */
+public class ConcurrentRegistrationTests {
+    private static final int THREADS = 8;
+    private static final int PER_STATE_WAIT = 2000;
+
+    private static final class Counted implements RegisterableObject<Void> {
+        private final State state;
+        private final AtomicInteger runs = new AtomicInteger();
+
+        private Counted(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public State registerState() {
+            return state;
+        }
+
+        @Override
+        public Void create() throws Throwable {
+            return null;
+        }
+
+        @Override
+        public void register() {
+            runs.incrementAndGet();
+        }
+
+        @Override
+        public void registerClient() {
+        }
+    }
+
+    private Proxy proxy;
+
+    /**
+     * Set test Proxy.
+     */
+    @Before
+    public void setProxy() {
+        System.setProperty(Proxy.AUTO_BIND_PROP_KEY, Boolean.FALSE.toString());
+        proxy = new Proxy();
+    }
+
+    /**
+     * Hammers registration from many threads while the proxy passes PREINIT
+     * and INIT. Every accepted object must run exactly once, and every
+     * rejected object must never run.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void registerDuringTransitions() throws Exception {
+        final Queue<Counted> accepted = new ConcurrentLinkedQueue<Counted>();
+        final Queue<Counted> rejected = new ConcurrentLinkedQueue<Counted>();
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    int n = 0;
+                    // stop once both states are gone
+                    while (proxy.okayToRegisterForState(State.INIT)) {
+                        Counted obj =
+                                new Counted(n++ % 2 == 0 ? State.PREINIT
+                                        : State.INIT);
+                        try {
+                            proxy.registerRegisterableObject(obj);
+                            accepted.add(obj);
+                        } catch (IllegalStateException e) {
+                            rejected.add(obj);
+                        }
+                        attempts.incrementAndGet();
+                    }
+                }
+            }, "registration-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        proxy.construct(new FMLConstructionEvent(null, null, null));
+        start.countDown();
+        awaitAttempts(attempts, PER_STATE_WAIT);
+        FMLPreInitializationEvent preInit =
+                new FMLPreInitializationEvent(null, null);
+        preInit.applyModContainer(new ProxyModContainer(proxy));
+        proxy.preInit(preInit);
+        awaitAttempts(attempts, PER_STATE_WAIT * 2);
+        proxy.init(new FMLInitializationEvent());
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        proxy.postInit(new FMLPostInitializationEvent());
+
+        assertFalse("nothing was accepted", accepted.isEmpty());
+        for (Counted obj : accepted) {
+            assertEquals("accepted " + obj.state + " object runs", 1,
+                         obj.runs.get());
+        }
+        for (Counted obj : rejected) {
+            assertEquals("rejected " + obj.state + " object runs", 0,
+                         obj.runs.get());
+        }
+    }
+
+    private static void awaitAttempts(AtomicInteger attempts, int atLeast) {
+        while (attempts.get() < atLeast) {
+            Thread.yield();
+        }
+    }
+}
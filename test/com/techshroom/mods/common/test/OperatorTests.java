@@ -0,0 +1,221 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.techshroom.mods.common.java8.function.FloatOperators;
+import com.techshroom.mods.common.java8.function.FloatUnaryOperator;
+import com.techshroom.mods.common.java8.function.IntOperators;
+import com.techshroom.mods.common.java8.function.IntUnaryOperator;
+import com.techshroom.mods.common.java8.function.MemoizedToFloatFunction;
+import com.techshroom.mods.common.java8.function.MemoizedToIntFunction;
+import com.techshroom.mods.common.java8.function.ToFloatFunction;
+import com.techshroom.mods.common.java8.function.ToIntFunction;
+
+/**
+ * Tests for {@link IntOperators} and {@link FloatOperators}.
+ * 
+ * @author Kenzie Togami
+ */
+public class OperatorTests {
+    private static final IntUnaryOperator PLUS_ONE = new IntUnaryOperator() {
+        @Override
+        public int applyAsInt(int input) {
+            return input + 1;
+        }
+    };
+    private static final IntUnaryOperator TIMES_TWO = new IntUnaryOperator() {
+        @Override
+        public int applyAsInt(int input) {
+            return input * 2;
+        }
+    };
+    private static final FloatUnaryOperator HALF = new FloatUnaryOperator() {
+        @Override
+        public float applyAsFloat(float input) {
+            return input / 2;
+        }
+    };
+
+    /**
+     * Compositions of every size apply their operators in order.
+     */
+    @Test
+    public void composeOrder() {
+        assertEquals(5, IntOperators.compose().applyAsInt(5));
+        assertEquals(6, IntOperators.compose(PLUS_ONE).applyAsInt(5));
+        assertEquals(12, IntOperators.compose(PLUS_ONE, TIMES_TWO)
+                .applyAsInt(5));
+        assertEquals(13, IntOperators.compose(PLUS_ONE, TIMES_TWO, PLUS_ONE)
+                .applyAsInt(5));
+        assertEquals(26, IntOperators.compose(PLUS_ONE, TIMES_TWO, PLUS_ONE,
+                                              TIMES_TWO).applyAsInt(5));
+        assertEquals(1.25f, FloatOperators.compose(HALF, HALF)
+                .applyAsFloat(5), 0);
+    }
+
+    /**
+     * Identities and nesting are removed, and constants cut off what comes
+     * before them.
+     */
+    @Test
+    public void composeSimplifies() {
+        assertSame(PLUS_ONE, IntOperators.compose(IntOperators.identity(),
+                                                  PLUS_ONE,
+                                                  IntOperators.identity()));
+        IntUnaryOperator nested =
+                IntOperators.compose(PLUS_ONE, IntOperators
+                        .compose(TIMES_TWO, PLUS_ONE));
+        assertEquals(IntOperators.compose(PLUS_ONE, TIMES_TWO, PLUS_ONE),
+                     nested);
+        assertEquals(13, nested.applyAsInt(5));
+        assertEquals(IntOperators.constant(3),
+                     IntOperators.compose(PLUS_ONE, TIMES_TWO,
+                                          IntOperators.constant(3)));
+        assertEquals(8, IntOperators.compose(PLUS_ONE,
+                                             IntOperators.constant(3),
+                                             PLUS_ONE, TIMES_TWO)
+                .applyAsInt(100));
+        assertSame(FloatOperators.identity(),
+                   FloatOperators.compose(FloatOperators.identity()));
+        assertEquals(FloatOperators.constant(2),
+                     FloatOperators.compose(HALF, FloatOperators.constant(2)));
+        assertEquals("constant(3)(" + PLUS_ONE + ")",
+                     IntOperators.compose(IntOperators.constant(3), PLUS_ONE)
+                             .toString());
+    }
+
+    /**
+     * Bulk application matches applying one element at a time, for built-in
+     * and plain operators, arrays and buffers.
+     */
+    @Test
+    public void applyAll() {
+        IntUnaryOperator[] ops =
+                { IntOperators.identity(), IntOperators.constant(4), PLUS_ONE,
+                        IntOperators.compose(PLUS_ONE, TIMES_TWO),
+                        IntOperators.compose(TIMES_TWO, PLUS_ONE, TIMES_TWO),
+                        IntOperators.compose(PLUS_ONE, TIMES_TWO, PLUS_ONE,
+                                             TIMES_TWO) };
+        int[] src = new int[64];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i - 20;
+        }
+        for (IntUnaryOperator op : ops) {
+            int[] dst = new int[src.length];
+            IntOperators.applyAll(op, src, 3, dst, 5, 50);
+            for (int i = 0; i < src.length; i++) {
+                int expected = i >= 5 && i < 55 ? op.applyAsInt(src[i - 2]) : 0;
+                assertEquals(op.toString(), expected, dst[i]);
+            }
+            int[] inPlace = src.clone();
+            IntOperators.applyAll(op, inPlace, inPlace, 0, inPlace.length);
+            IntBuffer buffer = IntBuffer.allocate(src.length);
+            IntOperators.applyAll(op, IntBuffer.wrap(src), buffer);
+            assertFalse(buffer.hasRemaining());
+            for (int i = 0; i < src.length; i++) {
+                assertEquals(op.applyAsInt(src[i]), inPlace[i]);
+                assertEquals(op.applyAsInt(src[i]), buffer.get(i));
+            }
+        }
+        try {
+            IntOperators.applyAll(PLUS_ONE, src, new int[4], 0, 5);
+            fail("expected an exception for a short array");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        float[] floats = { 1, 2, 3, 4 };
+        FloatBuffer direct = FloatBuffer.allocate(4);
+        FloatOperators.applyAll(FloatOperators.compose(HALF, HALF),
+                                FloatBuffer.wrap(floats).asReadOnlyBuffer(),
+                                direct);
+        assertEquals(0.75f, direct.get(2), 0);
+        FloatOperators.applyAll(FloatOperators.constant(7), floats, floats, 1,
+                                2);
+        assertArrayEquals(new float[] { 1, 7, 7, 4 }, floats, 0);
+    }
+
+    /**
+     * Memoized functions call through once per key, stay within their size,
+     * and count hits and misses.
+     */
+    @Test
+    public void memoize() {
+        final AtomicInteger calls = new AtomicInteger();
+        MemoizedToIntFunction<String> length =
+                IntOperators.memoize(new ToIntFunction<String>() {
+                    @Override
+                    public int applyAsInt(String input) {
+                        calls.incrementAndGet();
+                        return input.length();
+                    }
+                }, 100);
+        assertEquals(5, length.applyAsInt("hello"));
+        assertEquals(5, length.applyAsInt("hello"));
+        assertEquals(1, calls.get());
+        assertEquals(1, length.stats().hitCount());
+        assertEquals(1, length.stats().missCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i).length(),
+                         length.applyAsInt(Integer.toString(i)));
+        }
+        assertEquals(100, length.size());
+        assertEquals(1001 - length.size(), length.stats().evictionCount());
+        length.invalidateAll();
+        assertEquals(0, length.size());
+        assertEquals(5, length.applyAsInt("hello"));
+        assertEquals(1002, calls.get());
+
+        MemoizedToFloatFunction<Integer> half =
+                FloatOperators.memoize(new ToFloatFunction<Integer>() {
+                    @Override
+                    public float applyAsFloat(Integer input) {
+                        return input / 2f;
+                    }
+                }, 4);
+        assertEquals(1.5f, half.applyAsFloat(3), 0);
+        assertEquals(1.5f, half.applyAsFloat(3), 0);
+        assertEquals(1, half.stats().hitCount());
+
+        // the size doesn't divide evenly between the segments
+        MemoizedToIntFunction<Integer> identity =
+                IntOperators.memoize(new ToIntFunction<Integer>() {
+                    @Override
+                    public int applyAsInt(Integer input) {
+                        return input;
+                    }
+                }, 1000);
+        for (int i = 0; i < 10000; i++) {
+            identity.applyAsInt(i);
+        }
+        assertEquals(1000, identity.size());
+    }
+
+    /**
+     * A hot key survives a stream of one-off keys.
+     */
+    @Test
+    public void memoizeKeepsHotKeys() {
+        final AtomicInteger hotCalls = new AtomicInteger();
+        MemoizedToIntFunction<Integer> cached =
+                IntOperators.memoize(new ToIntFunction<Integer>() {
+                    @Override
+                    public int applyAsInt(Integer input) {
+                        if (input == -1) {
+                            hotCalls.incrementAndGet();
+                        }
+                        return input;
+                    }
+                }, 8);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(-1, cached.applyAsInt(-1));
+            assertEquals(i, cached.applyAsInt(i));
+        }
+        assertEquals(1, hotCalls.get());
+    }
+}
@@ -0,0 +1,80 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.techshroom.mods.common.java8.function.FloatOperators;
+import com.techshroom.mods.common.java8.function.IntOperators;
+import com.techshroom.mods.common.java8.optional.OptionalFloat;
+import com.techshroom.mods.common.java8.optional.OptionalInt;
+
+/**
+ * Tests for {@link OptionalInt} and {@link OptionalFloat}, mostly that cached
+ * and uncached instances behave the same.
+ * 
+ * @author Kenzie Togami
+ */
+public class OptionalTests {
+    /**
+     * Cached ints are shared, and equal uncached ones.
+     */
+    @Test
+    public void intCache() {
+        assertSame(OptionalInt.of(15), OptionalInt.of(15));
+        assertSame(OptionalInt.of(-128), OptionalInt.of(-128));
+        assertSame(OptionalInt.of(1023), OptionalInt.of(1023));
+        assertNotSame(OptionalInt.of(1024), OptionalInt.of(1024));
+        assertNotSame(OptionalInt.of(-129), OptionalInt.of(-129));
+        for (int i = -200; i < 1100; i++) {
+            OptionalInt a = OptionalInt.of(i);
+            OptionalInt b = OptionalInt.of(i);
+            assertEquals(a, b);
+            assertEquals(a.hashCode(), b.hashCode());
+            assertEquals(i, a.get());
+            assertFalse(a.equals(OptionalInt.absent()));
+        }
+        assertFalse(OptionalInt.of(1).equals(OptionalInt.of(2)));
+    }
+
+    /**
+     * Cached floats are shared, and equal uncached ones. {@code -0.0} stays
+     * distinct from {@code 0.0}.
+     */
+    @Test
+    public void floatCache() {
+        assertSame(OptionalFloat.of(0), OptionalFloat.of(0));
+        assertSame(OptionalFloat.of(1.5f), OptionalFloat.of(1.5f));
+        assertSame(OptionalFloat.of(64), OptionalFloat.of(64));
+        assertNotSame(OptionalFloat.of(0.25f), OptionalFloat.of(0.25f));
+        assertNotSame(OptionalFloat.of(64.5f), OptionalFloat.of(64.5f));
+        OptionalFloat negativeZero = OptionalFloat.of(-0.0f);
+        assertFalse(negativeZero.equals(OptionalFloat.of(0)));
+        assertEquals(Float.floatToRawIntBits(-0.0f),
+                     Float.floatToRawIntBits(negativeZero.get()));
+        assertEquals(OptionalFloat.of(Float.NaN), OptionalFloat.of(Float.NaN));
+        for (float f = -2; f < 70; f += 0.25f) {
+            OptionalFloat a = OptionalFloat.of(f);
+            OptionalFloat b = OptionalFloat.of(f);
+            assertEquals(a, b);
+            assertEquals(a.hashCode(), b.hashCode());
+            assertEquals(f, a.get(), 0);
+        }
+    }
+
+    /**
+     * Transforming to the same value returns the same instance.
+     */
+    @Test
+    public void transform() {
+        OptionalInt big = OptionalInt.of(5000);
+        assertSame(big, big.transform(IntOperators.identity()));
+        assertEquals(OptionalInt.of(7), big.transform(IntOperators.constant(7)));
+        assertSame(OptionalInt.absent(),
+                   OptionalInt.absent().transform(IntOperators.identity()));
+        OptionalFloat quarter = OptionalFloat.of(0.25f);
+        assertSame(quarter, quarter.transform(FloatOperators.identity()));
+        assertEquals(OptionalFloat.of(2),
+                     quarter.transform(FloatOperators.constant(2)));
+    }
+}
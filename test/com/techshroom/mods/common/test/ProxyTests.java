@@ -4,22 +4,33 @@ import static com.techshroom.mods.common.Generics.emptyArray;
 import static org.junit.Assert.*;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.minecraftforge.fml.common.event.*;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.Callables;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.techshroom.mods.common.ClientProxy;
 import com.techshroom.mods.common.Proxy;
 import com.techshroom.mods.common.Proxy.State;
+import com.techshroom.mods.common.ProxyProfiler;
 import com.techshroom.mods.common.java8.function.Consumer;
+import com.techshroom.mods.common.java8.supplier.BooleanSupplier;
+import com.techshroom.mods.common.proxybuilders.DependentRegisterableObject;
+import com.techshroom.mods.common.proxybuilders.LazyRegisterableObject;
 import com.techshroom.mods.common.proxybuilders.PhasePrinter;
 import com.techshroom.mods.common.proxybuilders.RegisterableObject;
+import com.techshroom.mods.common.proxybuilders.RetainedRegisterableObject;
 
 /**
  * Tests for proxy classes.
@@ -126,6 +137,327 @@ public class ProxyTests {
         });
     }
 
+    /**
+     * Proper firing on registerable objects by proxies with parallel create.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void parallelCreateRegister() throws Exception {
+        forEachState(new Consumer<List<Object>>() {
+            @Override
+            public void accept(List<Object> input) {
+                State state = (State) input.get(0);
+                State[] pre = (State[]) input.get(1);
+                setProxy();
+                regular.setParallelCreate(true);
+                client.setParallelCreate(true);
+                doCorrect(state, pre, regular);
+                doCorrect(state, pre, client);
+            }
+        });
+    }
+
+    /**
+     * A failing create doesn't stop the other objects in parallel create.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void parallelCreateIsolatesFailure() throws Exception {
+        regular.setParallelCreate(true);
+        boolean[] flags = flagbase.clone();
+        boolean[] badFlags = flagbase.clone();
+        regular.registerRegisterableObject(regObjTester(State.PREINIT, flags));
+        regular.registerRegisterableObject(regObjTester(State.PREINIT,
+                badFlags, new Runnable() {
+                    @Override
+                    public void run() {
+                        throw new IllegalStateException("expected failure");
+                    }
+                }, null, null));
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        checkRegistered(flags, State.PREINIT, false);
+        checkNotRegistered(badFlags, State.PREINIT, false);
+    }
+
+    /**
+     * Dependencies are registered before their dependents, even when queued
+     * after them.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void dependencyOrder() throws Exception {
+        for (Proxy proxy : ImmutableList.of(regular, client)) {
+            List<Object> order = Lists.newArrayList();
+            RegisterableObject<Void> base =
+                    dependentTester(State.PREINIT, order);
+            RegisterableObject<Void> middle =
+                    dependentTester(State.PREINIT, order, base);
+            RegisterableObject<Void> top =
+                    dependentTester(State.PREINIT, order, middle, base);
+            proxy.registerRegisterableObject(top);
+            proxy.registerRegisterableObject(middle);
+            proxy.registerRegisterableObject(base);
+            fireCorrespondingEvent(proxy, State.CONSTRUCT);
+            fireCorrespondingEvent(proxy, State.PREINIT);
+            assertEquals(ImmutableList.of(base, middle, top), order);
+        }
+    }
+
+    /**
+     * Objects in a dependency cycle are skipped, everything else still runs.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void dependencyCycle() throws Exception {
+        List<Object> order = Lists.newArrayList();
+        final List<RegisterableObject<?>> firstDeps = Lists.newArrayList();
+        RegisterableObject<Void> first =
+                dependentTester(State.INIT, order, firstDeps);
+        RegisterableObject<Void> second =
+                dependentTester(State.INIT, order, first);
+        firstDeps.add(second);
+        RegisterableObject<Void> free = dependentTester(State.INIT, order);
+        regular.registerRegisterableObject(first);
+        regular.registerRegisterableObject(second);
+        regular.registerRegisterableObject(free);
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        fireCorrespondingEvent(regular, State.INIT);
+        assertEquals(ImmutableList.of(free), order);
+    }
+
+    /**
+     * A dependent waits for a same-state dependency that is only registered
+     * while the state is running.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void dependencyRegisteredLater() throws Exception {
+        final List<Object> order = Lists.newArrayList();
+        final RegisterableObject<Void> base =
+                dependentTester(State.INIT, order);
+        RegisterableObject<Void> top = dependentTester(State.INIT, order, base);
+        RegisterableObject<Void> registersBase =
+                regObjTester(State.INIT, flagbase.clone(), null,
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                regular.registerRegisterableObject(base);
+                            }
+                        }, null);
+        regular.registerRegisterableObject(top);
+        regular.registerRegisterableObject(registersBase);
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        fireCorrespondingEvent(regular, State.INIT);
+        assertEquals(ImmutableList.of(base, top), order);
+    }
+
+    /**
+     * A dependent of a same-state dependency that is never registered is
+     * skipped, everything else still runs.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void dependencyNeverRegistered() throws Exception {
+        List<Object> order = Lists.newArrayList();
+        RegisterableObject<Void> missing = dependentTester(State.INIT, order);
+        RegisterableObject<Void> dependent =
+                dependentTester(State.INIT, order, missing);
+        RegisterableObject<Void> free = dependentTester(State.INIT, order);
+        regular.registerRegisterableObject(dependent);
+        regular.registerRegisterableObject(free);
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        fireCorrespondingEvent(regular, State.INIT);
+        fireCorrespondingEvent(regular, State.POSTINIT);
+        assertEquals(ImmutableList.of(free), order);
+    }
+
+    /**
+     * Depending on an object from a later state is rejected.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void dependencyOnLaterState() throws Exception {
+        regular.registerRegisterableObject(dependentTester(State.PREINIT,
+                Lists.newArrayList(), dependentTester(State.INIT,
+                        Lists.newArrayList())));
+    }
+
+    /**
+     * Batch registration queues each object for its own state, and rejects
+     * the batch once a state in it is passed.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void registerAll() throws Exception {
+        boolean[] preInit = flagbase.clone();
+        boolean[] init = flagbase.clone();
+        regular.registerAll(regObjTester(State.PREINIT, preInit),
+                            regObjTester(State.INIT, init));
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        checkRegistered(preInit, State.PREINIT, false);
+        checkNotRegistered(init, State.INIT, false);
+        fireCorrespondingEvent(regular, State.INIT);
+        checkRegistered(init, State.INIT, false);
+        boolean[] late = flagbase.clone();
+        try {
+            regular.registerAll(ImmutableList.of(regObjTester(State.PREINIT,
+                                                              late)));
+            fail("registered for a passed state");
+        } catch (IllegalStateException expected) {
+        }
+        checkNotRegistered(late, State.PREINIT, false);
+    }
+
+    /**
+     * Lazy objects are only supplied when their state runs, and not at all
+     * when disabled.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void lazyRegister() throws Exception {
+        final boolean[] flags = flagbase.clone();
+        final int[] supplied = new int[1];
+        Supplier<RegisterableObject<Void>> supplier =
+                new Supplier<RegisterableObject<Void>>() {
+                    @Override
+                    public RegisterableObject<Void> get() {
+                        supplied[0]++;
+                        return regObjTester(State.PREINIT, flags);
+                    }
+                };
+        regular.registerRegisterableObject(new LazyRegisterableObject<Void>(
+                State.PREINIT, supplier));
+        regular.registerRegisterableObject(new LazyRegisterableObject<Void>(
+                State.PREINIT, supplier, new BooleanSupplier() {
+                    @Override
+                    public boolean get() {
+                        return false;
+                    }
+                }));
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        assertEquals(0, supplied[0]);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        // the disabled one is never supplied
+        assertEquals(1, supplied[0]);
+        checkRegistered(flags, State.PREINIT, false);
+    }
+
+    /**
+     * A state waits for the background tasks it needs, and a failed task
+     * doesn't stop the state.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void backgroundTaskBarrier() throws Exception {
+        final AtomicBoolean done = new AtomicBoolean();
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        ListenableFuture<Void> task =
+                regular.submitTask(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Thread.sleep(100);
+                        done.set(true);
+                        return null;
+                    }
+                }, State.INIT);
+        regular.submitTask(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                throw new IllegalStateException("expected failure");
+            }
+        }, State.PREINIT);
+        final boolean[] sawDone = new boolean[1];
+        regular.registerRegisterableObject(regObjTester(State.INIT,
+                flagbase.clone(), new Runnable() {
+                    @Override
+                    public void run() {
+                        sawDone[0] = done.get();
+                    }
+                }, null, null));
+        fireCorrespondingEvent(regular, State.PREINIT);
+        fireCorrespondingEvent(regular, State.INIT);
+        assertTrue(task.isDone());
+        assertTrue("INIT started before its task finished", sawDone[0]);
+        try {
+            regular.submitTask(Callables.returning(null), State.INIT);
+            fail("submitted a task for a passed state");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    /**
+     * Only retained objects are kept once their state is passed, everything
+     * else is counted as released.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void releaseAfterState() throws Exception {
+        RegisterableObject<Void> kept =
+                retainedTester(State.PREINIT, flagbase.clone());
+        regular.registerRegisterableObject(kept);
+        regular.registerRegisterableObject(regObjTester(State.PREINIT,
+                                                        flagbase.clone()));
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        assertTrue(regular.getRetainedObjects(State.PREINIT).isEmpty());
+        long released = regular.getReleasedObjectCount();
+        fireCorrespondingEvent(regular, State.PREINIT);
+        assertEquals(ImmutableList.of(kept),
+                     regular.getRetainedObjects(State.PREINIT));
+        // tester and phase printer
+        assertEquals(released + 2, regular.getReleasedObjectCount());
+    }
+
+    /**
+     * Profiling records passed states and the objects run in them.
+     * 
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void profiling() throws Exception {
+        regular.setProfiling(true);
+        boolean[] flags = flagbase.clone();
+        regular.registerRegisterableObject(regObjTester(State.PREINIT, flags));
+        fireCorrespondingEvent(regular, State.CONSTRUCT);
+        fireCorrespondingEvent(regular, State.PREINIT);
+        ProxyProfiler profiler = regular.getProfiler().get();
+        assertTrue(profiler.getStateTiming(State.CONSTRUCT).isPresent());
+        assertTrue(profiler.getStateTiming(State.PREINIT).isPresent());
+        assertFalse(profiler.getStateTiming(State.INIT).isPresent());
+        // tester and a phase printer for each state
+        assertEquals(3, profiler.getSlowest(10).size());
+        StringBuilder csv = new StringBuilder();
+        profiler.writeCsv(csv);
+        assertTrue(csv.toString().startsWith("kind,state,name,"));
+    }
+
     private void forEachState(Consumer<List<Object>> doThis) {
         List<State> pre = Lists.newArrayListWithCapacity(State.values().length);
         for (State state : State.values()) {
@@ -321,4 +653,66 @@ public class ProxyTests {
             }
         };
     }
+
+    private RetainedRegisterableObject<Void> retainedTester(
+            final State state, final boolean[] flags) {
+        final RegisterableObject<Void> delegate = regObjTester(state, flags);
+        return new RetainedRegisterableObject<Void>() {
+            @Override
+            public State registerState() {
+                return state;
+            }
+
+            @Override
+            public Void create() throws Throwable {
+                return delegate.create();
+            }
+
+            @Override
+            public void register() {
+                delegate.register();
+            }
+
+            @Override
+            public void registerClient() {
+                delegate.registerClient();
+            }
+        };
+    }
+
+    private DependentRegisterableObject<Void> dependentTester(
+            final State state, final List<Object> order,
+            RegisterableObject<?>... deps) {
+        return dependentTester(state, order, Arrays.asList(deps));
+    }
+
+    private DependentRegisterableObject<Void> dependentTester(
+            final State state, final List<Object> order,
+            final Collection<? extends RegisterableObject<?>> deps) {
+        return new DependentRegisterableObject<Void>() {
+            @Override
+            public State registerState() {
+                return state;
+            }
+
+            @Override
+            public Collection<? extends RegisterableObject<?>> dependsOn() {
+                return deps;
+            }
+
+            @Override
+            public Void create() throws Throwable {
+                return null;
+            }
+
+            @Override
+            public void register() {
+                order.add(this);
+            }
+
+            @Override
+            public void registerClient() {
+            }
+        };
+    }
 }
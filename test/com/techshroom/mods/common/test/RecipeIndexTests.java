@@ -0,0 +1,104 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.IRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapedRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapelessRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RecipeIndex;
+
+/**
+ * Tests for {@link RecipeIndex}.
+ *
+ * @author Kenzie Togami
+ */
+public class RecipeIndexTests {
+    private static final Container CONTAINER = new Container() {
+        @Override
+        public boolean canInteractWith(EntityPlayer player) {
+            return true;
+        }
+    };
+
+    /**
+     * A shaped recipe is found wherever it is in the grid, mirrored or not,
+     * and only for its own items.
+     *
+     * @throws Throwable
+     *             exceptions propagate
+     */
+    @Test
+    public void shaped() throws Throwable {
+        Item left = new Item();
+        Item right = new Item();
+        IRecipe recipe =
+                register(new ShapedRecipeExtension().setResult(
+                        new ItemStack(new Item())).setInputStack(
+                        Arrays.<Object> asList("lr", 'l', left, 'r', right)));
+        assertEquals(Optional.of(recipe),
+                     find(null, null, null, null, stack(left), stack(right)));
+        assertEquals(Optional.of(recipe),
+                     find(null, null, null, stack(right), stack(left)));
+        assertFalse(find(stack(left), stack(left)).isPresent());
+        // an equal item that is a different instance
+        assertFalse(find(stack(new Item()), stack(right)).isPresent());
+    }
+
+    /**
+     * Wildcard metadata matches any metadata.
+     *
+     * @throws Throwable
+     *             exceptions propagate
+     */
+    @Test
+    public void shapelessWildcard() throws Throwable {
+        Item any = new Item();
+        Item exact = new Item();
+        IRecipe recipe =
+                register(new ShapelessRecipeExtension().setResult(
+                        new ItemStack(new Item())).setInputStack(
+                        Arrays.<Object> asList(new ItemStack(any, 1,
+                                OreDictionary.WILDCARD_VALUE), new ItemStack(
+                                exact, 1, 2))));
+        assertEquals(Optional.of(recipe),
+                     find(new ItemStack(any, 1, 7),
+                          new ItemStack(exact, 1, 2)));
+        assertEquals(Optional.of(recipe),
+                     find(new ItemStack(exact, 1, 2), null, new ItemStack(any,
+                             1, 0)));
+        assertFalse(find(new ItemStack(any, 1, 7), new ItemStack(exact, 1, 3))
+                .isPresent());
+    }
+
+    private static IRecipe register(IRecipeExtension<?> builder)
+            throws Throwable {
+        IRecipe recipe = builder.create();
+        builder.register();
+        return recipe;
+    }
+
+    private static ItemStack stack(Item item) {
+        return new ItemStack(item);
+    }
+
+    private static Optional<IRecipe> find(ItemStack... stacks) {
+        InventoryCrafting grid = new InventoryCrafting(CONTAINER, 3, 3);
+        for (int i = 0; i < stacks.length; i++) {
+            grid.setInventorySlotContents(i, stacks[i]);
+        }
+        return RecipeIndex.findMatching(grid, null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.techshroom.mods.common.proxybuilders.RRBuilder.ShapedRecipeExtension;
+import com.techshroom.mods.common.proxybuilders.RecipeInputStack;
+
+/**
+ * Tests for {@link RecipeInputStack}.
+ * 
+ * @author Kenzie Togami
+ */
+public class RecipeInputStackTests {
+    /**
+     * Push, add and remove keep list order.
+     */
+    @Test
+    public void pushAndAdd() {
+        RecipeInputStack stack = new ShapedRecipeExtension().getInputs();
+        stack.add("b");
+        stack.push("a");
+        stack.add("c");
+        for (int i = 0; i < 10; i++) {
+            stack.push(i);
+        }
+        assertEquals(13, stack.size());
+        assertEquals(9, stack.get(0));
+        assertEquals("a", stack.get(10));
+        assertEquals("c", stack.get(12));
+        assertEquals(9, stack.remove(0));
+        assertEquals("b", stack.remove(10));
+        assertEquals(Arrays.<Object> asList(8, 7, 6, 5, 4, 3, 2, 1, 0, "a",
+                                            "c"), stack);
+    }
+
+    /**
+     * setInputStack replaces the contents and push still works after.
+     */
+    @Test
+    public void setInputStack() {
+        ShapedRecipeExtension ext = new ShapedRecipeExtension();
+        ext.push("old");
+        ext.setInputStack(ImmutableList.<Object> of("XYX", 'X', "ingotIron"));
+        ext.push("first");
+        assertEquals(Arrays.<Object> asList("first", "XYX", 'X', "ingotIron"),
+                     ext.getInputs());
+        ext.getInputs().clear();
+        assertTrue(ext.getInputs().isEmpty());
+    }
+
+    /**
+     * The deprecated linked list stays the builder's inputs until
+     * getInputs() takes them back.
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void legacyInputStack() {
+        ShapedRecipeExtension ext = new ShapedRecipeExtension();
+        ext.push("b");
+        LinkedList<Object> legacy = ext.getInputStack();
+        legacy.add("c");
+        ext.push("a");
+        assertSame(legacy, ext.getInputStack());
+        assertEquals(Arrays.<Object> asList("a", "b", "c"), legacy);
+        assertEquals(Arrays.<Object> asList("a", "b", "c"), ext.getInputs());
+        ext.push("z");
+        assertEquals(Arrays.<Object> asList("z", "a", "b", "c"),
+                     ext.getInputs());
+    }
+}
@@ -0,0 +1,199 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ExecutionException;
+
+import net.minecraftforge.fml.common.event.FMLConstructionEvent;
+import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.techshroom.mods.common.Proxy;
+import com.techshroom.mods.common.proxybuilders.RecipeLoader;
+
+/**
+ * Tests for {@link RecipeLoader}.
+ *
+ * @author Kenzie Togami
+ */
+public class RecipeLoaderTests {
+    private static final String SMELTING =
+            "{ \"type\": \"smelting\", \"input\": { \"item\": \"%s\" },"
+                    + " \"result\": { \"item\": \"minecraft:iron_ingot\" },"
+                    + " \"xp\": 0.7 }";
+
+    private Proxy proxy;
+    private File dir;
+
+    /**
+     * Set test Proxy and a place for recipe files.
+     */
+    @Before
+    public void setUp() {
+        System.setProperty(Proxy.AUTO_BIND_PROP_KEY, Boolean.FALSE.toString());
+        proxy = new Proxy();
+        dir = Files.createTempDir();
+    }
+
+    /**
+     * Remove the recipe files.
+     */
+    @After
+    public void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * A recipe missing its result is reported with its index.
+     *
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void malformedFile() throws Exception {
+        URL file =
+                recipeFile("[" + String.format(SMELTING, "minecraft:iron_ore")
+                        + ", { \"type\": \"smelting\" }]");
+        try {
+            RecipeLoader.load(proxy, file);
+            fail("loaded a recipe without a result");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(),
+                       expected.getMessage().contains("recipe 1"));
+        }
+    }
+
+    /**
+     * Submitted files are parsed in the background, but their items are only
+     * looked up once POSTINIT starts.
+     *
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void submitLooksUpItemsAtPostInit() throws Exception {
+        proxy.construct(new FMLConstructionEvent(null, null, null));
+        ListenableFuture<Integer> found =
+                RecipeLoader.submit(proxy,
+                        recipeFile("[" + String.format(SMELTING,
+                                "minecraft:iron_ore") + "]"));
+        // not registered yet, so an unknown item can't fail the parse
+        ListenableFuture<Integer> missing =
+                RecipeLoader.submit(proxy,
+                        recipeFile("[" + String.format(SMELTING,
+                                "missing:ore") + "]"));
+        ListenableFuture<Integer> malformed =
+                RecipeLoader.submit(proxy, recipeFile("[{}]"));
+        assertEquals(1, found.get().intValue());
+        assertEquals(1, missing.get().intValue());
+        try {
+            malformed.get();
+            fail("parsed a malformed file");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+        long released = proxy.getReleasedObjectCount();
+        FMLPreInitializationEvent preInit =
+                new FMLPreInitializationEvent(null, null);
+        preInit.applyModContainer(new ProxyModContainer(proxy));
+        proxy.preInit(preInit);
+        proxy.init(new FMLInitializationEvent());
+        assertEquals(released, proxy.getReleasedObjectCount());
+        proxy.postInit(new FMLPostInitializationEvent());
+        // one object per file, and only the file with known items registers
+        // its recipe
+        assertEquals(released + 3 + 1, proxy.getReleasedObjectCount());
+    }
+
+    /**
+     * A snapshot is written on the first load and used on the next. A
+     * damaged snapshot registers nothing, and the file is parsed instead.
+     *
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void snapshotRoundTrip() throws Exception {
+        URL file =
+                recipeFile("[" + String.format(SMELTING, "minecraft:iron_ore")
+                        + ", { \"type\": \"shapeless\", \"ingredients\":"
+                        + " [\"dyeRed\", { \"item\": \"minecraft:wool\" }],"
+                        + " \"result\": { \"item\": \"minecraft:wool\","
+                        + " \"meta\": 14 } }]");
+        File snapshot = new File(dir, "recipes.snapshot");
+        proxy.construct(new FMLConstructionEvent(null, null, null));
+        assertEquals(2, RecipeLoader.load(proxy, file, snapshot, null));
+        assertTrue(snapshot.isFile());
+        byte[] written = Files.toByteArray(snapshot);
+        // a rewritten snapshot would be newer
+        assertTrue(snapshot.setLastModified(0));
+        assertEquals(2, RecipeLoader.load(proxy, file, snapshot, null));
+        assertEquals(0, snapshot.lastModified());
+        // a different config key doesn't use it
+        assertEquals(2, RecipeLoader.load(proxy, file, snapshot, "other"));
+        assertFalse(snapshot.lastModified() == 0);
+
+        // flip the last byte of the body
+        assertEquals(2, RecipeLoader.load(proxy, file, snapshot, null));
+        byte[] damaged = Files.toByteArray(snapshot);
+        assertArrayEquals(written, damaged);
+        damaged[damaged.length - 1] ^= 1;
+        Files.write(damaged, snapshot);
+        assertEquals(2, RecipeLoader.load(proxy, file, snapshot, null));
+        assertArrayEquals(written, Files.toByteArray(snapshot));
+
+        long released = proxy.getReleasedObjectCount();
+        FMLPreInitializationEvent preInit =
+                new FMLPreInitializationEvent(null, null);
+        preInit.applyModContainer(new ProxyModContainer(proxy));
+        proxy.preInit(preInit);
+        proxy.init(new FMLInitializationEvent());
+        proxy.postInit(new FMLPostInitializationEvent());
+        // five loads, each registering both recipes once
+        assertEquals(released + 10, proxy.getReleasedObjectCount());
+    }
+
+    /**
+     * A snapshot with a garbage string length is unusable, not fatal.
+     *
+     * @throws Exception
+     *             exceptions propagate
+     */
+    @Test
+    public void garbageSnapshot() throws Exception {
+        URL file =
+                recipeFile("[" + String.format(SMELTING, "minecraft:iron_ore")
+                        + "]");
+        File snapshot = new File(dir, "recipes.snapshot");
+        // magic, version, then a key length that overflows when doubled
+        byte[] header = new byte[12];
+        System.arraycopy(Ints.toByteArray(0x54535253), 0, header, 0, 4);
+        System.arraycopy(Ints.toByteArray(1), 0, header, 4, 4);
+        System.arraycopy(Ints.toByteArray(0x40000001), 0, header, 8, 4);
+        Files.write(header, snapshot);
+        proxy.construct(new FMLConstructionEvent(null, null, null));
+        assertEquals(1, RecipeLoader.load(proxy, file, snapshot, null));
+        assertTrue(snapshot.length() > header.length);
+    }
+
+    private URL recipeFile(String json) throws IOException {
+        File file = File.createTempFile("recipes", ".json", dir);
+        Files.write(json, file, Charsets.UTF_8);
+        return file.toURI().toURL();
+    }
+}
@@ -0,0 +1,74 @@
+package com.techshroom.mods.common.test;
+
+import static org.junit.Assert.*;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.junit.Test;
+
+import com.techshroom.mods.common.proxybuilders.RRBuilder.SmeltingExtension;
+import com.techshroom.mods.common.proxybuilders.SmeltingIndex;
+import com.techshroom.mods.common.proxybuilders.SmeltingIndex.Entry;
+
+/**
+ * Tests for {@link SmeltingIndex}.
+ *
+ * @author Kenzie Togami
+ */
+public class SmeltingIndexTests {
+    /**
+     * Exact metadata comes before the wildcard, and items are told apart by
+     * instance.
+     */
+    @Test
+    public void lookup() {
+        Item ore = new Item();
+        ItemStack exact = new ItemStack(new Item());
+        ItemStack any = new ItemStack(new Item());
+        new SmeltingExtension().setInput(new ItemStack(ore, 1, 3))
+                .setResult(exact).setXP(1).register();
+        new SmeltingExtension().setInput(ore).setResult(any).setXP(0.5f)
+                .register();
+        Entry entry = SmeltingIndex.lookup(new ItemStack(ore, 1, 3)).get();
+        assertSame(exact, entry.getResult());
+        assertSame(ore, entry.getItem());
+        assertEquals(3, entry.getMeta());
+        assertEquals(1, entry.getXP(), 0);
+        entry = SmeltingIndex.lookup(new ItemStack(ore, 1, 4)).get();
+        assertSame(any, entry.getResult());
+        assertEquals(OreDictionary.WILDCARD_VALUE, entry.getMeta());
+        assertFalse(SmeltingIndex.lookup(new ItemStack(new Item(), 1, 3))
+                .isPresent());
+    }
+
+    /**
+     * A later recipe for the same input replaces the earlier one, and the
+     * index keeps every input as it grows.
+     */
+    @Test
+    public void replaceAndGrow() {
+        Item ore = new Item();
+        new SmeltingExtension().setInput(ore).setResult(new ItemStack(ore))
+                .register();
+        ItemStack replaced = new ItemStack(new Item());
+        int size = SmeltingIndex.size();
+        new SmeltingExtension().setInput(ore).setResult(replaced).register();
+        assertEquals(size, SmeltingIndex.size());
+        assertSame(replaced, SmeltingIndex.lookup(new ItemStack(ore)).get()
+                .getResult());
+        Item[] items = new Item[200];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item();
+            new SmeltingExtension().setInput(new ItemStack(items[i], 1, i))
+                    .setResult(new ItemStack(ore)).register();
+        }
+        assertEquals(size + items.length, SmeltingIndex.size());
+        for (int i = 0; i < items.length; i++) {
+            assertSame(items[i],
+                       SmeltingIndex.lookup(new ItemStack(items[i], 1, i))
+                               .get().getItem());
+        }
+    }
+}